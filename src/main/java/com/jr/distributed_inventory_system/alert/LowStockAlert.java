@@ -0,0 +1,32 @@
+package com.jr.distributed_inventory_system.alert;
+
+import com.jr.distributed_inventory_system.stream.Conflatable;
+
+/**
+ * Cruce de umbral de reposición de un SKU.
+ * BELOW: el stock bajó del umbral. RECOVERED: volvió a quedar igual o por encima.
+ * 'sequence' ordena los cambios de estado de un mismo SKU en esta instancia.
+ */
+public record LowStockAlert(
+        Type type,
+        String skuId,
+        String productId,
+        String storeId,
+        int stockLevel,
+        int threshold,
+        long sequence
+) implements Conflatable<LowStockAlert> {
+
+    public enum Type {
+        BELOW,
+        RECOVERED
+    }
+
+    /**
+     * Para un cliente lento solo importa el estado más reciente del SKU.
+     */
+    @Override
+    public LowStockAlert conflate(LowStockAlert other) {
+        return other.sequence() > sequence ? other : this;
+    }
+}
@@ -0,0 +1,196 @@
+package com.jr.distributed_inventory_system.alert;
+
+import com.jr.distributed_inventory_system.event.StockChangedEvent;
+import com.jr.distributed_inventory_system.model.InventoryItem;
+import com.jr.distributed_inventory_system.repository.InventoryRepository;
+import com.jr.distributed_inventory_system.stream.SseSubscriber;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detección incremental de SKUs bajo el umbral de reposición.
+ * En lugar de escanear la tabla 'inventory', cada escritura confirmada (StockChangedEvent)
+ * compara el stock anterior y el nuevo contra el umbral y mantiene un índice en memoria
+ * agrupado por tienda. Consultar el conjunto actual cuesta O(resultado).
+ * Los cruces se emiten por SSE con SseSubscriber: cada suscriptor tiene su propio buffer
+ * acotado, así que un cliente lento nunca retrasa a los demás ni al commit; si lo desborda,
+ * recibe un evento 'snapshot' con el conjunto completo en lugar de los cruces sueltos.
+ */
+@Component
+public class LowStockMonitor {
+
+    private final class Subscriber {
+        private final SseSubscriber<LowStockAlert> delivery;
+        private final String storeId;
+
+        private Subscriber(SseEmitter emitter, String storeId) {
+            this.delivery = new SseSubscriber<>(emitter, senders, maxPendingPerSubscriber,
+                    alert -> alert.type().name(), () -> subscribers.remove(this));
+            this.storeId = storeId;
+        }
+
+        boolean accepts(LowStockAlert alert) {
+            return storeId == null || storeId.equals(alert.storeId());
+        }
+    }
+
+    private final InventoryRepository inventoryRepository;
+    private final ReorderThresholds thresholds;
+    private final long sseTimeoutMs;
+    private final int maxPendingPerSubscriber;
+
+    // storeId -> (skuId -> estado actual bajo umbral)
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, LowStockAlert>> belowThreshold =
+            new ConcurrentHashMap<>();
+    // skuId -> última secuencia de stock aplicada: los callbacks after-commit pueden llegar desordenados.
+    private final ConcurrentHashMap<String, Long> lastAppliedSequence = new ConcurrentHashMap<>();
+    // Secuencia de las alertas; se asigna dentro del compute por SKU, así que es monótona por SKU.
+    private final AtomicLong alertSequence = new AtomicLong();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public LowStockMonitor(InventoryRepository inventoryRepository,
+                           ReorderThresholds thresholds,
+                           @Value("${inventory.low-stock.sse-timeout-ms:1800000}") long sseTimeoutMs,
+                           @Value("${inventory.low-stock.max-pending-per-subscriber:256}") int maxPendingPerSubscriber) {
+        this.inventoryRepository = inventoryRepository;
+        this.thresholds = thresholds;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.maxPendingPerSubscriber = maxPendingPerSubscriber;
+    }
+
+    /**
+     * Carga inicial del índice: un único recorrido al arrancar (tras DataInitializer),
+     * nunca durante la operación normal. Antes se cargan los umbrales persistidos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        thresholds.load();
+        inventoryRepository.findAll().forEach(this::reevaluate);
+    }
+
+    /**
+     * Camino incremental: solo tras COMMIT de reserveStock/updateStock/updateStockBulk.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        int threshold = thresholds.thresholdFor(event.skuId(), event.storeId());
+        boolean wasBelow = event.previousStockLevel() < threshold;
+        boolean isBelow = event.newStockLevel() < threshold;
+
+        // Caso más común: el SKU sigue holgado por encima del umbral; no se toca el índice.
+        if (!wasBelow && !isBelow) {
+            return;
+        }
+        apply(event.skuId(), event.productId(), event.storeId(), event.newStockLevel(), threshold, event.sequence());
+    }
+
+    /**
+     * Recalcula un SKU contra su umbral vigente (p. ej. tras cambiar el umbral).
+     */
+    public void reevaluate(InventoryItem item) {
+        int threshold = thresholds.thresholdFor(item.getSkuId(), item.getStoreId());
+        apply(item.getSkuId(), item.getProductId(), item.getStoreId(), item.getStockLevel(), threshold,
+                item.getChangeSequence());
+    }
+
+    /**
+     * SKUs actualmente bajo umbral, de una tienda o de todas (storeId null).
+     */
+    public List<LowStockAlert> currentlyBelow(String storeId) {
+        if (storeId != null) {
+            Map<String, LowStockAlert> store = belowThreshold.get(storeId);
+            return store == null ? List.of() : List.copyOf(store.values());
+        }
+        List<LowStockAlert> all = new ArrayList<>();
+        belowThreshold.values().forEach(store -> all.addAll(store.values()));
+        return all;
+    }
+
+    /**
+     * Registra un suscriptor SSE. Recibe primero el conjunto actual (como eventos BELOW)
+     * y después cada cruce de umbral. Un evento 'snapshot' sustituye el conjunto entero.
+     * @param storeId filtra por tienda; null para todas.
+     */
+    public SseEmitter subscribe(String storeId) {
+        return subscribe(new SseEmitter(sseTimeoutMs), storeId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, String storeId) {
+        Subscriber subscriber = new Subscriber(emitter, storeId);
+        subscribers.add(subscriber);
+
+        // El conjunto se lee después de registrar: los cruces concurrentes no se pierden.
+        senders.execute(() -> subscriber.delivery.start(() -> currentlyBelow(storeId), null));
+        return emitter;
+    }
+
+    /**
+     * Aplica el nuevo nivel de un SKU. Una secuencia de stock menor que la ya aplicada es
+     * un callback que llegó tarde y se ignora; con la misma secuencia se re-aplica, porque
+     * pudo cambiar el umbral.
+     */
+    private void apply(String skuId, String productId, String storeId, int stockLevel, int threshold, long sequence) {
+        LowStockAlert[] toBroadcast = new LowStockAlert[1];
+        lastAppliedSequence.compute(skuId, (key, lastApplied) -> {
+            if (lastApplied != null && sequence < lastApplied) {
+                return lastApplied;
+            }
+            if (stockLevel < threshold) {
+                LowStockAlert alert = new LowStockAlert(LowStockAlert.Type.BELOW, skuId, productId, storeId,
+                        stockLevel, threshold, alertSequence.incrementAndGet());
+                LowStockAlert previous = belowThreshold
+                        .computeIfAbsent(storeId, store -> new ConcurrentHashMap<>())
+                        .put(skuId, alert);
+                // Solo se notifica la entrada al conjunto; bajadas posteriores solo actualizan el índice.
+                if (previous == null) {
+                    toBroadcast[0] = alert;
+                }
+            } else {
+                Map<String, LowStockAlert> store = belowThreshold.get(storeId);
+                if (store != null && store.remove(skuId) != null) {
+                    toBroadcast[0] = new LowStockAlert(LowStockAlert.Type.RECOVERED, skuId, productId, storeId,
+                            stockLevel, threshold, alertSequence.incrementAndGet());
+                }
+            }
+            return sequence;
+        });
+        if (toBroadcast[0] != null) {
+            broadcast(toBroadcast[0]);
+        }
+    }
+
+    // Nunca bloquea: cada suscriptor solo encola en su propio buffer.
+    private void broadcast(LowStockAlert alert) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(alert)) {
+                subscriber.delivery.offer(alert);
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.delivery.emitter().complete());
+    }
+}
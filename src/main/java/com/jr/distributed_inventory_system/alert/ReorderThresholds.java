@@ -0,0 +1,70 @@
+package com.jr.distributed_inventory_system.alert;
+
+import com.jr.distributed_inventory_system.model.ReorderThreshold;
+import com.jr.distributed_inventory_system.repository.ReorderThresholdRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Umbrales de reposición. Prioridad: por SKU > por tienda > valor por defecto.
+ * Un SKU está "bajo umbral" cuando stockLevel < umbral; un umbral 0 desactiva la alerta.
+ *
+ * Cada cambio se escribe en la tabla 'reorder_threshold' antes de aplicarse en memoria;
+ * los mapas son solo la copia que se consulta en cada commit. load() los rellena al arrancar
+ * (LowStockMonitor.buildIndex), así que los umbrales sobreviven a reinicios y, con una base de
+ * datos compartida, una instancia ve los que fijaron las demás al arrancar. Un cambio en otra
+ * instancia en caliente no se propaga hasta entonces.
+ */
+@Component
+public class ReorderThresholds {
+
+    private final ReorderThresholdRepository repository;
+    private final int defaultThreshold;
+    private final ConcurrentHashMap<String, Integer> bySku = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> byStore = new ConcurrentHashMap<>();
+
+    public ReorderThresholds(ReorderThresholdRepository repository,
+                             @Value("${inventory.low-stock.default-threshold:5}") int defaultThreshold) {
+        this.repository = repository;
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    /**
+     * Carga los umbrales persistidos. Debe ejecutarse antes de evaluar ningún SKU.
+     */
+    public void load() {
+        for (ReorderThreshold stored : repository.findAll()) {
+            switch (stored.getScope()) {
+                case SKU -> bySku.put(stored.getTargetId(), stored.getThreshold());
+                case STORE -> byStore.put(stored.getTargetId(), stored.getThreshold());
+            }
+        }
+    }
+
+    public int thresholdFor(String skuId, String storeId) {
+        Integer skuThreshold = bySku.get(skuId);
+        if (skuThreshold != null) {
+            return skuThreshold;
+        }
+        return byStore.getOrDefault(storeId, defaultThreshold);
+    }
+
+    public void setSkuThreshold(String skuId, int threshold) {
+        repository.save(new ReorderThreshold(ReorderThreshold.Scope.SKU, skuId, requireNonNegative(threshold)));
+        bySku.put(skuId, threshold);
+    }
+
+    public void setStoreThreshold(String storeId, int threshold) {
+        repository.save(new ReorderThreshold(ReorderThreshold.Scope.STORE, storeId, requireNonNegative(threshold)));
+        byStore.put(storeId, threshold);
+    }
+
+    private static int requireNonNegative(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("El umbral de reposición no puede ser negativo: " + threshold);
+        }
+        return threshold;
+    }
+}
@@ -0,0 +1,27 @@
+package com.jr.distributed_inventory_system.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte en el mismo JVM. Varias "instancias" simuladas pueden compartir un
+ * mismo objeto para probar la invalidación cruzada sin red.
+ */
+public class InMemoryInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<List<StockInvalidation>>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(List<StockInvalidation> batch) {
+        List<StockInvalidation> immutableBatch = List.copyOf(batch);
+        for (Consumer<List<StockInvalidation>> listener : listeners) {
+            listener.accept(immutableBatch);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<List<StockInvalidation>> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,30 @@
+package com.jr.distributed_inventory_system.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Transporte intercambiable para difundir invalidaciones del near-cache entre instancias.
+ * Implementaciones: InMemoryInvalidationTransport (mismo JVM, pruebas) y
+ * MulticastInvalidationTransport (UDP multicast entre nodos).
+ * La entrega es "best effort": la caducidad del near-cache acota la obsolescencia
+ * si un mensaje se pierde.
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    /**
+     * Envía un lote de invalidaciones a todas las instancias suscritas (incluida la propia).
+     * @param batch invalidaciones ya coalescidas (un mensaje por SKU)
+     */
+    void send(List<StockInvalidation> batch);
+
+    /**
+     * Registra un oyente que recibirá cada lote entrante.
+     * @param listener callback invocado en el hilo del transporte
+     */
+    void subscribe(Consumer<List<StockInvalidation>> listener);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,136 @@
+package com.jr.distributed_inventory_system.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte UDP multicast: cada lote viaja en un único datagrama.
+ * Formato binario: [long, long origen][int n] seguido de n pares [UTF skuId][long version].
+ * El origen viaja una vez por datagrama: todos los mensajes de un lote salen del mismo nodo.
+ * Con loopback habilitado, la propia instancia también recibe sus mensajes.
+ */
+public class MulticastInvalidationTransport implements InvalidationTransport {
+
+    // Por debajo del MTU típico de Ethernet para evitar fragmentación.
+    private static final int MAX_DATAGRAM_BYTES = 1400;
+
+    private final InetAddress group;
+    private final int port;
+    private final MulticastSocket socket;
+    private final List<Consumer<List<StockInvalidation>>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread receiver;
+    private volatile boolean running = true;
+
+    public MulticastInvalidationTransport(String groupAddress, int port) {
+        try {
+            this.group = InetAddress.getByName(groupAddress);
+            this.port = port;
+            this.socket = new MulticastSocket(port);
+            this.socket.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+            this.socket.joinGroup(new InetSocketAddress(group, port), (NetworkInterface) null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el canal multicast de invalidación", e);
+        }
+        this.receiver = new Thread(this::receiveLoop, "near-cache-multicast-receiver");
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    @Override
+    public void send(List<StockInvalidation> batch) {
+        try {
+            byte[] payload = encode(batch);
+            if (payload.length > MAX_DATAGRAM_BYTES && batch.size() > 1) {
+                // Lote demasiado grande para un datagrama: se parte en dos mitades.
+                int middle = batch.size() / 2;
+                send(batch.subList(0, middle));
+                send(batch.subList(middle, batch.size()));
+                return;
+            }
+            socket.send(new DatagramPacket(payload, payload.length, group, port));
+        } catch (IOException e) {
+            // Best effort: la caducidad del near-cache cubre los mensajes perdidos.
+            System.err.println("!!! Invalidación multicast no enviada: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<List<StockInvalidation>> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        socket.close();
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[64 * 1024];
+        while (running) {
+            try {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                socket.receive(packet);
+                List<StockInvalidation> batch = decode(packet.getData(), packet.getOffset(), packet.getLength());
+                for (Consumer<List<StockInvalidation>> listener : listeners) {
+                    listener.accept(batch);
+                }
+            } catch (SocketException e) {
+                // El socket se cerró durante el apagado.
+                return;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("!!! Datagrama de invalidación descartado: " + e.getMessage());
+            }
+        }
+    }
+
+    static byte[] encode(List<StockInvalidation> batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + batch.size() * 24);
+        DataOutputStream out = new DataOutputStream(bytes);
+        UUID origin = batch.isEmpty() ? new UUID(0, 0) : batch.get(0).origin();
+        out.writeLong(origin.getMostSignificantBits());
+        out.writeLong(origin.getLeastSignificantBits());
+        out.writeInt(batch.size());
+        for (StockInvalidation invalidation : batch) {
+            if (!origin.equals(invalidation.origin())) {
+                throw new IllegalArgumentException("Un lote de invalidaciones debe tener un único origen");
+            }
+            out.writeUTF(invalidation.skuId());
+            out.writeLong(invalidation.version());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static List<StockInvalidation> decode(byte[] data, int offset, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+        UUID origin = new UUID(in.readLong(), in.readLong());
+        int size = in.readInt();
+        // Cada entrada ocupa al menos 10 bytes ([UTF vacío] 2 + [long] 8): un recuento mayor es un
+        // datagrama corrupto o ajeno, y reservar 'size' a ciegas podría tirar el hilo receptor por OOM.
+        if (size < 0 || size > length / 10) {
+            throw new IOException("Recuento de invalidaciones inválido: " + size);
+        }
+        List<StockInvalidation> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(new StockInvalidation(in.readUTF(), in.readLong(), origin));
+        }
+        return batch;
+    }
+}
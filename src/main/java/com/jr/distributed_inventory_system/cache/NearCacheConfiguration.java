@@ -0,0 +1,26 @@
+package com.jr.distributed_inventory_system.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selecciona el transporte de invalidación según 'inventory.near-cache.transport':
+ *  - in-memory: una sola instancia o pruebas (valor por defecto).
+ *  - multicast: varias instancias en la misma red (UDP multicast).
+ */
+@Configuration
+public class NearCacheConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public InvalidationTransport invalidationTransport(
+            @Value("${inventory.near-cache.transport:in-memory}") String transport,
+            @Value("${inventory.near-cache.multicast.group:239.1.2.3}") String group,
+            @Value("${inventory.near-cache.multicast.port:45600}") int port) {
+        return switch (transport) {
+            case "in-memory" -> new InMemoryInvalidationTransport();
+            case "multicast" -> new MulticastInvalidationTransport(group, port);
+            default -> throw new IllegalStateException("Transporte de invalidación desconocido: " + transport);
+        };
+    }
+}
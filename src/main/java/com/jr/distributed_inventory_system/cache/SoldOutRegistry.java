@@ -0,0 +1,94 @@
+package com.jr.distributed_inventory_system.cache;
+
+import com.jr.distributed_inventory_system.event.StockChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conjunto en memoria de SKUs agotados (stock 0) para rechazar reservas sin abrir
+ * transacción ni llamar al servicio de pagos.
+ * Se llena de forma perezosa: cuando un commit deja el stock en 0 o cuando el camino
+ * lento encuentra el SKU a 0 bajo bloqueo. Es conservador:
+ *  - ante cualquier invalidación recibida de otra instancia el SKU sale del conjunto y vuelve
+ *    al camino lento, que siempre tiene la última palabra (las propias se ignoran: el
+ *    transporte también las entrega a este nodo);
+ *  - cada entrada caduca tras 'ttl-ms', así que una reposición cuyo mensaje se perdió
+ *    deja de rechazarse como mucho tras ese tiempo;
+ *  - cada SKU recuerda la secuencia de cambios (InventoryItem.changeSequence) de su último
+ *    estado aplicado: un callback after-commit "stock 0" que llega tarde no vuelve a marcar
+ *    un SKU que una reposición posterior ya liberó.
+ */
+@Component
+public class SoldOutRegistry {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final UUID nodeId;
+    // skuId -> último estado aplicado. Se conserva también al liberar el SKU (para descartar
+    // eventos anteriores), así que hay como mucho una entrada por SKU escrito.
+    private final ConcurrentHashMap<String, Mark> marks = new ConcurrentHashMap<>();
+
+    /**
+     * @param sequence secuencia de cambios del SKU que originó el estado.
+     * @param soldOutUntil instante (System.nanoTime) en que caduca la marca; solo si soldOut.
+     */
+    private record Mark(long sequence, boolean soldOut, long soldOutUntil) {
+    }
+
+    public SoldOutRegistry(StockInvalidationChannel invalidationChannel,
+                           InvalidationTransport transport,
+                           @Value("${inventory.sold-out.fast-path-enabled:true}") boolean enabled,
+                           @Value("${inventory.sold-out.ttl-ms:${inventory.near-cache.max-staleness-ms:1000}}") long ttlMs) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.nodeId = invalidationChannel.nodeId();
+        // Una escritura en otro nodo (p. ej. una recepción) puede haber repuesto el SKU.
+        transport.subscribe(batch -> batch.forEach(invalidation -> {
+            if (!nodeId.equals(invalidation.origin())) {
+                apply(invalidation.skuId(), invalidation.version(), false);
+            }
+        }));
+    }
+
+    public boolean isSoldOut(String skuId) {
+        if (!enabled) {
+            return false;
+        }
+        Mark mark = marks.get(skuId);
+        return mark != null && mark.soldOut() && System.nanoTime() - mark.soldOutUntil() < 0;
+    }
+
+    /**
+     * Lo invoca el camino lento al leer stock 0 bajo bloqueo pesimista.
+     * @param sequence secuencia de cambios del SKU leída bajo el mismo bloqueo.
+     */
+    public void markSoldOut(String skuId, long sequence) {
+        apply(skuId, sequence, true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        apply(event.skuId(), event.sequence(), event.newStockLevel() == 0);
+    }
+
+    /**
+     * Aplica el estado del SKU en 'sequence' salvo que ya haya uno posterior. Con la misma
+     * secuencia se reemplaza: así el camino lento renueva una marca caducada.
+     */
+    private void apply(String skuId, long sequence, boolean soldOut) {
+        if (!enabled) {
+            return;
+        }
+        marks.compute(skuId, (key, current) -> {
+            if (current != null && sequence < current.sequence()) {
+                return current;
+            }
+            return new Mark(sequence, soldOut, soldOut ? System.nanoTime() + ttlNanos : 0);
+        });
+    }
+}
@@ -0,0 +1,14 @@
+package com.jr.distributed_inventory_system.cache;
+
+import java.util.UUID;
+
+/**
+ * Mensaje compacto de invalidación entre instancias: el SKU afectado, una versión y el nodo de origen.
+ * La versión es la secuencia de cambios del SKU (InventoryItem.changeSequence) del último
+ * commit coalescido: los receptores solo descartan entradas cacheadas con una versión menor
+ * y no vuelven a cachear lecturas más viejas que la invalidación.
+ * El origen permite a un nodo reconocer sus propios mensajes (el transporte en memoria y el
+ * loopback multicast también se los entregan a quien los envió).
+ */
+public record StockInvalidation(String skuId, long version, UUID origin) {
+}
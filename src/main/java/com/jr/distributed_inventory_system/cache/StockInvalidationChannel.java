@@ -0,0 +1,109 @@
+package com.jr.distributed_inventory_system.cache;
+
+import com.jr.distributed_inventory_system.event.StockChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canal de invalidación del near-cache entre instancias.
+ * Tras cada COMMIT de reserveStock/updateStock:
+ *  1. invalida el near-cache local de forma síncrona;
+ *  2. encola (skuId, version) para difundirlo al resto de nodos, firmado con el ID de este nodo.
+ * La cola coalesce por SKU: bajo carga, N escrituras del mismo SKU dentro de un
+ * intervalo de flush viajan como un único mensaje.
+ */
+@Component
+public class StockInvalidationChannel {
+
+    private final StockNearCache nearCache;
+    private final InvalidationTransport transport;
+    private final int maxBatchSize;
+    // Identifica los mensajes de esta instancia; cambia en cada arranque.
+    private final UUID nodeId = UUID.randomUUID();
+    private final ConcurrentHashMap<String, Long> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public StockInvalidationChannel(
+            StockNearCache nearCache,
+            InvalidationTransport transport,
+            @Value("${inventory.near-cache.flush-interval-ms:5}") long flushIntervalMs,
+            @Value("${inventory.near-cache.max-batch-size:32}") int maxBatchSize) {
+        this.nearCache = nearCache;
+        this.transport = transport;
+        this.maxBatchSize = maxBatchSize;
+
+        // Invalidaciones entrantes (de cualquier nodo, incluido este).
+        transport.subscribe(batch -> batch.forEach(
+                invalidation -> nearCache.invalidate(invalidation.skuId(), invalidation.version())));
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "near-cache-invalidation-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public UUID nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Se ejecuta solo si la transacción hizo COMMIT (o inmediatamente si no hay transacción activa).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        nearCache.invalidate(event.skuId(), event.sequence());
+        pending.merge(event.skuId(), event.sequence(), Math::max);
+    }
+
+    /**
+     * Vacía la cola de invalidaciones pendientes en lotes de como máximo 'max-batch-size'.
+     * Lo invoca periódicamente el flusher; es público para forzarlo en pruebas.
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<StockInvalidation> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+        for (String skuId : pending.keySet()) {
+            Long version = pending.remove(skuId);
+            if (version == null) {
+                continue;
+            }
+            batch.add(new StockInvalidation(skuId, version, nodeId));
+            if (batch.size() == maxBatchSize) {
+                send(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private void send(List<StockInvalidation> batch) {
+        try {
+            transport.send(batch);
+        } catch (RuntimeException e) {
+            // Un fallo del transporte no debe matar al flusher; la caducidad acota la obsolescencia.
+            System.err.println("!!! Fallo al difundir invalidaciones: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+    }
+}
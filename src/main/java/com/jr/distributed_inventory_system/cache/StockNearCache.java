@@ -0,0 +1,134 @@
+package com.jr.distributed_inventory_system.cache;
+
+import com.jr.distributed_inventory_system.model.InventoryItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Near-cache local (por instancia) para el Query Service.
+ * Las entradas se eliminan al recibir una invalidación del canal entre instancias;
+ * además caducan tras 'max-staleness-ms', lo que acota la obsolescencia aunque
+ * un mensaje de invalidación se pierda.
+ * El mapa está acotado: las entradas caducadas se barren cuando se supera 'max-entries'.
+ */
+@Component
+public class StockNearCache {
+
+    /**
+     * Entrada del cache. Con snapshot null es una marca de invalidación: recuerda la versión
+     * invalidada para que una lectura de BD iniciada antes no vuelva a cachear un valor viejo.
+     */
+    private record CachedStock(InventoryItem snapshot, long version, long storedAtNanos) {
+    }
+
+    private final boolean enabled;
+    private final long maxStalenessNanos;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, CachedStock> entries = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+
+    public StockNearCache(
+            @Value("${inventory.near-cache.enabled:true}") boolean enabled,
+            @Value("${inventory.near-cache.max-staleness-ms:1000}") long maxStalenessMs,
+            @Value("${inventory.near-cache.max-entries:100000}") int maxEntries) {
+        this.enabled = enabled;
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Retorna el stock cacheado o lo carga con 'loader' si no existe o ya caducó.
+     * @param productId ID del producto.
+     * @param storeId ID de la tienda.
+     * @param loader lectura de respaldo contra la base de datos.
+     */
+    public Optional<InventoryItem> get(String productId, String storeId, Supplier<Optional<InventoryItem>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String skuId = skuIdOf(storeId, productId);
+        long now = System.nanoTime();
+        CachedStock cached = entries.get(skuId);
+        if (cached != null && cached.snapshot() != null) {
+            if (!isExpired(cached, now)) {
+                return Optional.of(cached.snapshot());
+            }
+            entries.remove(skuId, cached);
+        }
+
+        Optional<InventoryItem> loaded = loader.get();
+        loaded.ifPresent(item -> store(skuId, snapshotOf(item)));
+        return loaded;
+    }
+
+    /**
+     * Invalida el SKU hasta la versión indicada. Idempotente y tolerante al desorden:
+     * una invalidación repetida o más vieja que lo cacheado no tiene efecto.
+     */
+    public void invalidate(String skuId, long version) {
+        CachedStock marker = new CachedStock(null, version, System.nanoTime());
+        entries.compute(skuId, (key, previous) ->
+                previous != null && previous.version() >= version ? previous : marker);
+        sweepIfFull();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void store(String skuId, InventoryItem snapshot) {
+        if (entries.size() >= maxEntries && !sweepIfFull()) {
+            // Cache lleno de entradas vigentes: se sirve desde BD sin cachear.
+            return;
+        }
+        CachedStock fresh = new CachedStock(snapshot, snapshot.getChangeSequence(), System.nanoTime());
+        // Solo se cachea si no hay una entrada o invalidación vigente de una versión más nueva.
+        entries.compute(skuId, (key, previous) ->
+                previous == null || isExpired(previous, fresh.storedAtNanos())
+                        || fresh.version() >= previous.version() ? fresh : previous);
+    }
+
+    /**
+     * Barre las entradas caducadas si se superó 'max-entries' (como mucho una vez por
+     * periodo de caducidad, para no recorrer el mapa en cada operación).
+     * @return true si hay espacio tras el barrido.
+     */
+    private boolean sweepIfFull() {
+        if (entries.size() < maxEntries) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long lastSweep = lastSweepNanos.get();
+        if (now - lastSweep >= maxStalenessNanos && lastSweepNanos.compareAndSet(lastSweep, now)) {
+            entries.values().removeIf(entry -> isExpired(entry, now));
+        }
+        return entries.size() < maxEntries;
+    }
+
+    private boolean isExpired(CachedStock entry, long now) {
+        return now - entry.storedAtNanos() >= maxStalenessNanos;
+    }
+
+    // Misma convención de ID compuesto que DataInitializer e InventoryService.
+    static String skuIdOf(String storeId, String productId) {
+        return storeId + "_" + productId;
+    }
+
+    // Copia desacoplada de la entidad: nunca se cachea una instancia gestionada por JPA.
+    private static InventoryItem snapshotOf(InventoryItem item) {
+        InventoryItem snapshot = new InventoryItem();
+        snapshot.setSkuId(item.getSkuId());
+        snapshot.setProductId(item.getProductId());
+        snapshot.setStoreId(item.getStoreId());
+        snapshot.setStockLevel(item.getStockLevel());
+        snapshot.setChangeSequence(item.getChangeSequence());
+        return snapshot;
+    }
+}
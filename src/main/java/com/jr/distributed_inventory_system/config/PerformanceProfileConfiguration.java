@@ -0,0 +1,58 @@
+package com.jr.distributed_inventory_system.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuración del perfil 'perf' (carga de escritura).
+ * Las propiedades de Hibernate/Hikari viven en application-perf.properties; aquí solo
+ * se calcula el tamaño del pool, que depende de la máquina donde corre la instancia.
+ */
+@Configuration
+@Profile("perf")
+public class PerformanceProfileConfiguration {
+
+    /**
+     * DataSource Hikari con pool fijo (minimumIdle = maximumPoolSize) dimensionado por poolSize().
+     * El resto de 'spring.datasource.hikari.*' se enlaza después sobre este mismo objeto.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(
+            DataSourceProperties properties,
+            @Value("${inventory.perf.pool.lock-hold-ms:4}") double lockHoldMs,
+            @Value("${inventory.perf.pool.cpu-ms:2}") double cpuMs,
+            @Value("${inventory.perf.pool.max-size:64}") int maxSize) {
+
+        int size = poolSize(Runtime.getRuntime().availableProcessors(), lockHoldMs, cpuMs, maxSize);
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("inventory-perf");
+        dataSource.setMaximumPoolSize(size);
+        dataSource.setMinimumIdle(size);
+        System.out.println("--- PERFIL PERF: pool de conexiones = " + size + " ---");
+        return dataSource;
+    }
+
+    /**
+     * N = nucleos * (1 + espera / CPU). Mientras una transacción espera un bloqueo
+     * no usa CPU, así que hacen falta más conexiones que núcleos; más allá de eso
+     * las conexiones extra solo harían cola sobre la misma fila bloqueada.
+     * @param cores núcleos disponibles.
+     * @param lockHoldMs tiempo medio de retención del bloqueo pesimista.
+     * @param cpuMs tiempo medio de CPU por transacción.
+     * @param maxSize límite superior del pool.
+     */
+    static int poolSize(int cores, double lockHoldMs, double cpuMs, int maxSize) {
+        if (cpuMs <= 0) {
+            throw new IllegalArgumentException("inventory.perf.pool.cpu-ms debe ser > 0");
+        }
+        int size = (int) Math.ceil(cores * (1 + lockHoldMs / cpuMs));
+        // El máximo se aplica al final: ni siquiera el mínimo de un núcleo por conexión lo supera.
+        return Math.min(maxSize, Math.max(cores, size));
+    }
+}
@@ -4,6 +4,7 @@ import com.jr.distributed_inventory_system.exception.StockNotAvailableException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -12,6 +13,10 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,6 +27,25 @@ import java.util.Map;
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+    /**
+     * Cuerpo 409 pre-serializado para el rechazo rápido de SKUs agotados: mismos campos que
+     * createErrorBody, pero solo el timestamp se genera por petición (ni mapa ni Jackson).
+     */
+    private static final String SOLD_OUT_BODY_PREFIX = "{\"timestamp\":\"";
+    private static final String SOLD_OUT_BODY_SUFFIX =
+            "\",\"status\":409,\"error\":\"Conflict\",\"message\":\"Producto agotado: stock disponible 0.\"}";
+    // Mismo formato con el que Jackson serializa el java.util.Date de createErrorBody (UTC)
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSxxx").withZone(ZoneOffset.UTC);
+
+    static ResponseEntity<byte[]> soldOutResponse() {
+        String body = SOLD_OUT_BODY_PREFIX + TIMESTAMP_FORMAT.format(Instant.now()) + SOLD_OUT_BODY_SUFFIX;
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.getBytes(StandardCharsets.UTF_8));
+    }
+
     // Método de utilidad para crear un cuerpo de respuesta de error estandarizado
     private Map<String, Object> createErrorBody(HttpStatus status, String message, String error) {
         Map<String, Object> body = new HashMap<>();
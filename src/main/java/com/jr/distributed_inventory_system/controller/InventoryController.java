@@ -1,5 +1,6 @@
 package com.jr.distributed_inventory_system.controller;
 
+import com.jr.distributed_inventory_system.cache.SoldOutRegistry;
 import com.jr.distributed_inventory_system.model.InventoryItem;
 import com.jr.distributed_inventory_system.service.ExternalPaymentService;
 import com.jr.distributed_inventory_system.service.InventoryService;
@@ -8,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,10 +18,14 @@ public class InventoryController {
 
     private final InventoryService inventoryService;
     private final ExternalPaymentService externalPaymentService;
+    private final SoldOutRegistry soldOutRegistry;
 
-    public InventoryController(InventoryService inventoryService, ExternalPaymentService externalPaymentService) {
+    public InventoryController(InventoryService inventoryService,
+                               ExternalPaymentService externalPaymentService,
+                               SoldOutRegistry soldOutRegistry) {
         this.inventoryService = inventoryService;
         this.externalPaymentService = externalPaymentService;
+        this.soldOutRegistry = soldOutRegistry;
     }
 
     // --------------------------------------------------------------------------
@@ -48,6 +54,11 @@ public class InventoryController {
         String storeId = (String) request.get("storeId");
         int quantity = (Integer) request.getOrDefault("quantity", 0);
 
+        // **RECHAZO RÁPIDO:** SKU agotado conocido. Sin transacción, sin pago, sin excepción.
+        if (quantity > 0 && soldOutRegistry.isSoldOut(storeId + "_" + productId)) {
+            return GlobalExceptionHandler.soldOutResponse();
+        }
+
         // **FLUJO CRÍTICO:** Se debe garantizar que el stock solo se reserve si el pago es exitoso.
         // Simulamos la llamada externa con tolerancia a fallos.
         if (externalPaymentService.processPayment(transactionId)) {
@@ -82,4 +93,20 @@ public class InventoryController {
 
         return ResponseEntity.ok(updatedItem);
     }
+
+    // --------------------------------------------------------------------------
+    // 4. PUT /stock-updates/bulk (COMMAND SERVICE - AJUSTE MASIVO POR TIENDA)
+    // --------------------------------------------------------------------------
+    @PutMapping("/stock-updates/bulk")
+    public ResponseEntity<List<InventoryItem>> updateStockBulk(@RequestBody Map<String, Object> request) {
+        String storeId = (String) request.get("storeId");
+        // Ej.: {"storeId": "S001", "quantityChanges": {"P001": 20, "P002": -5}}
+        @SuppressWarnings("unchecked")
+        Map<String, Integer> quantityChanges =
+                (Map<String, Integer>) request.getOrDefault("quantityChanges", Map.of());
+
+        List<InventoryItem> updatedItems = inventoryService.updateStockBulk(storeId, quantityChanges);
+
+        return ResponseEntity.ok(updatedItems);
+    }
 }
\ No newline at end of file
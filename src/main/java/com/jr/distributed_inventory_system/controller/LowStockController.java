@@ -0,0 +1,79 @@
+package com.jr.distributed_inventory_system.controller;
+
+import com.jr.distributed_inventory_system.alert.LowStockAlert;
+import com.jr.distributed_inventory_system.alert.LowStockMonitor;
+import com.jr.distributed_inventory_system.alert.ReorderThresholds;
+import com.jr.distributed_inventory_system.repository.InventoryRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/inventory/low-stock")
+public class LowStockController {
+
+    private final LowStockMonitor lowStockMonitor;
+    private final ReorderThresholds reorderThresholds;
+    private final InventoryRepository inventoryRepository;
+
+    public LowStockController(LowStockMonitor lowStockMonitor,
+                              ReorderThresholds reorderThresholds,
+                              InventoryRepository inventoryRepository) {
+        this.lowStockMonitor = lowStockMonitor;
+        this.reorderThresholds = reorderThresholds;
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    // --------------------------------------------------------------------------
+    // 1. GET /low-stock?storeId= (CONJUNTO ACTUAL BAJO UMBRAL, SIN ESCANEAR LA TABLA)
+    // --------------------------------------------------------------------------
+    @GetMapping
+    public ResponseEntity<List<LowStockAlert>> getBelowThreshold(@RequestParam(required = false) String storeId) {
+        return ResponseEntity.ok(lowStockMonitor.currentlyBelow(storeId));
+    }
+
+    // --------------------------------------------------------------------------
+    // 2. GET /low-stock/stream?storeId= (SSE: CRUCES DE UMBRAL EN VIVO)
+    // --------------------------------------------------------------------------
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts(@RequestParam(required = false) String storeId) {
+        return lowStockMonitor.subscribe(storeId);
+    }
+
+    // --------------------------------------------------------------------------
+    // 3. PUT /low-stock/thresholds (UMBRAL POR SKU O POR TIENDA)
+    // --------------------------------------------------------------------------
+    @PutMapping("/thresholds")
+    public ResponseEntity<?> setThreshold(@RequestBody Map<String, Object> request) {
+        String storeId = (String) request.get("storeId");
+        String productId = (String) request.get("productId"); // Opcional: sin productId el umbral es de tienda
+        Integer threshold = (Integer) request.get("threshold");
+
+        if (storeId == null || threshold == null || threshold < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Se requieren 'storeId' y un 'threshold' mayor o igual a 0");
+        }
+
+        // Se recalculan solo los SKUs afectados por el nuevo umbral.
+        if (productId != null) {
+            reorderThresholds.setSkuThreshold(storeId + "_" + productId, threshold);
+            inventoryRepository.findByProductIdAndStoreId(productId, storeId)
+                    .ifPresent(lowStockMonitor::reevaluate);
+        } else {
+            reorderThresholds.setStoreThreshold(storeId, threshold);
+            inventoryRepository.findByStoreId(storeId).forEach(lowStockMonitor::reevaluate);
+        }
+
+        return ResponseEntity.ok(Map.of(
+                "storeId", storeId,
+                "productId", productId == null ? "*" : productId,
+                "threshold", threshold
+        ));
+    }
+}
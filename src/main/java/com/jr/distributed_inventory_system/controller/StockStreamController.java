@@ -0,0 +1,44 @@
+package com.jr.distributed_inventory_system.controller;
+
+import com.jr.distributed_inventory_system.stream.StockStreamHub;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/inventory/stream")
+public class StockStreamController {
+
+    private final StockStreamHub stockStreamHub;
+
+    public StockStreamController(StockStreamHub stockStreamHub) {
+        this.stockStreamHub = stockStreamHub;
+    }
+
+    // --------------------------------------------------------------------------
+    // 1. GET /stream?storeId=S001  o  /stream?skus=S001_P001,S001_P002 (SSE)
+    //    Evento 'snapshot' con el stock actual y luego un evento 'stock' por cada cambio.
+    // --------------------------------------------------------------------------
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStock(
+            @RequestParam(required = false) String storeId,
+            @RequestParam(required = false) Set<String> skus) {
+
+        boolean byStore = storeId != null;
+        boolean bySkus = skus != null && !skus.isEmpty();
+        if (byStore == bySkus) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Indique 'storeId' o 'skus' (uno de los dos)");
+        }
+        if (bySkus && skus.size() > stockStreamHub.maxSkusPerSubscription()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Máximo " + stockStreamHub.maxSkusPerSubscription() + " SKUs por suscripción");
+        }
+
+        return byStore ? stockStreamHub.subscribeToStore(storeId) : stockStreamHub.subscribeToSkus(skus);
+    }
+}
@@ -0,0 +1,19 @@
+package com.jr.distributed_inventory_system.event;
+
+/**
+ * Evento de dominio publicado por InventoryService cada vez que una escritura
+ * (reserva o ajuste) modifica el nivel de stock de un SKU.
+ * Los oyentes lo reciben tras el COMMIT (@TransactionalEventListener), nunca
+ * antes, para no propagar cambios que luego se revierten.
+ * Los callbacks de dos commits del mismo SKU pueden ejecutarse en cualquier orden:
+ * 'sequence' (InventoryItem.changeSequence) indica cuál es el más reciente.
+ */
+public record StockChangedEvent(
+        String skuId,
+        String productId,
+        String storeId,
+        int previousStockLevel,
+        int newStockLevel,
+        long sequence
+) {
+}
@@ -3,10 +3,12 @@ package com.jr.distributed_inventory_system.exception;
 /**
  * Excepción lanzada cuando no hay suficiente stock para completar una reserva o actualización.
  * Se mapeará a HTTP 409 Conflict.
+ * Es un resultado de negocio esperado (muy frecuente durante un sell-out), no un fallo:
+ * se crea sin stack trace ni supresión para que lanzarla sea barato.
  */
 public class StockNotAvailableException extends RuntimeException {
 
     public StockNotAvailableException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
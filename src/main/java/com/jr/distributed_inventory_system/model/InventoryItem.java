@@ -1,9 +1,15 @@
 package com.jr.distributed_inventory_system.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.Persistable;
 
 /**
  * Representa el nivel de stock para un producto en una tienda específica.
@@ -14,7 +20,7 @@ import jakarta.persistence.UniqueConstraint;
 @Table(name = "inventory", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"productId", "storeId"})
 })
-public class InventoryItem {
+public class InventoryItem implements Persistable<String> {
 
     // Usamos el ID del producto como la clave principal, pero se necesita un índice compuesto
     // para asegurar la unicidad de la combinación productId/storeId
@@ -28,6 +34,17 @@ public class InventoryItem {
     // Campo crítico de la lógica de negocio
     private int stockLevel;
 
+    // Secuencia de cambios del SKU: InventoryService la incrementa en cada escritura,
+    // siempre bajo el Bloqueo Pesimista, así que es monótona entre instancias.
+    // Permite a los oyentes descartar notificaciones que llegan fuera de orden.
+    @ColumnDefault("0")
+    private long changeSequence;
+
+    // El skuId lo asigna la aplicación, así que Spring Data no puede deducir si la fila es nueva
+    // a partir del ID: sin esto, save() haría merge (un SELECT extra) en lugar de persist.
+    @Transient
+    private boolean isNew = true;
+
     // --- Constructor vacío requerido por JPA ---
     public InventoryItem() {
     }
@@ -66,4 +83,32 @@ public class InventoryItem {
     public void setStockLevel(int stockLevel) {
         this.stockLevel = stockLevel;
     }
+
+    public long getChangeSequence() {
+        return changeSequence;
+    }
+
+    public void setChangeSequence(long changeSequence) {
+        this.changeSequence = changeSequence;
+    }
+
+    // --- Persistable (fuera del JSON): las filas cargadas o ya insertadas dejan de ser nuevas ---
+
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return skuId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
 }
\ No newline at end of file
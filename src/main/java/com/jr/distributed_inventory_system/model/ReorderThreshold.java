@@ -0,0 +1,60 @@
+package com.jr.distributed_inventory_system.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Umbral de reposición configurado por SKU o por tienda (PUT /inventory/low-stock/thresholds).
+ * Se persiste para sobrevivir a reinicios; ReorderThresholds lo mantiene en memoria para la
+ * consulta de cada commit.
+ */
+@Entity
+@Table(name = "reorder_threshold")
+public class ReorderThreshold {
+
+    public enum Scope { SKU, STORE }
+
+    // Clave única por ámbito (ej. SKU:S001_P001 o STORE:S001): un umbral por SKU y uno por tienda
+    @Id
+    private String thresholdKey;
+
+    @Enumerated(EnumType.STRING)
+    private Scope scope;
+
+    // skuId o storeId, según el ámbito
+    private String targetId;
+
+    private int threshold;
+
+    // --- Constructor vacío requerido por JPA ---
+    public ReorderThreshold() {
+    }
+
+    public ReorderThreshold(Scope scope, String targetId, int threshold) {
+        this.thresholdKey = scope + ":" + targetId;
+        this.scope = scope;
+        this.targetId = targetId;
+        this.threshold = threshold;
+    }
+
+    // --- Getters ---
+
+    public String getThresholdKey() {
+        return thresholdKey;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public String getTargetId() {
+        return targetId;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+}
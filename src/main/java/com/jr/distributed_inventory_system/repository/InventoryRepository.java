@@ -3,23 +3,42 @@ package com.jr.distributed_inventory_system.repository;
 
 import com.jr.distributed_inventory_system.model.InventoryItem;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<InventoryItem, String> {
 
     /**
      * Busca un InventoryItem por ProductId y StoreId.
+     * Camino de solo lectura del Query Service: la transacción readOnly marca la sesión
+     * como read-only (Hibernate no guarda la copia para dirty-checking) y la consulta
+     * nunca dispara un flush (FlushMode MANUAL, el antiguo NEVER).
      * @param productId ID del producto (SKU)
      * @param storeId ID de la tienda
      * @return Un Optional que contiene el InventoryItem o vacío si no existe.
      */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "MANUAL"))
     Optional<InventoryItem> findByProductIdAndStoreId(String productId, String storeId);
 
+    /**
+     * Todos los productos de una tienda (sin bloqueo).
+     * Solo se usa para recalcular alertas cuando cambia el umbral de reposición de la tienda.
+     * @param storeId ID de la tienda
+     * @return Los InventoryItem de la tienda.
+     */
+    @Transactional(readOnly = true)
+    List<InventoryItem> findByStoreId(String storeId);
+
     /**
      * Método CRÍTICO: Busca un item y aplica un Bloqueo Pesimista (WRITE).
      * Esto asegura que ningún otro proceso pueda leer/escribir este registro
@@ -32,4 +51,16 @@ public interface InventoryRepository extends JpaRepository<InventoryItem, String
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT i FROM InventoryItem i WHERE i.productId = :productId AND i.storeId = :storeId")
     Optional<InventoryItem> findByProductIdAndStoreIdWithLock(String productId, String storeId);
+
+    /**
+     * Versión masiva del bloqueo pesimista: bloquea todos los productos indicados de una tienda
+     * con una sola consulta. El ORDER BY fija un orden de adquisición de bloqueos común
+     * a todas las transacciones, evitando interbloqueos entre ajustes masivos concurrentes.
+     * @param storeId ID de la tienda
+     * @param productIds IDs de los productos
+     * @return Los InventoryItem existentes, bloqueados y ordenados por skuId.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventoryItem i WHERE i.storeId = :storeId AND i.productId IN :productIds ORDER BY i.skuId")
+    List<InventoryItem> findByStoreIdAndProductIdInWithLock(String storeId, Collection<String> productIds);
 }
\ No newline at end of file
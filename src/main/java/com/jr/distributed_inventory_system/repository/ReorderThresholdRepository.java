@@ -0,0 +1,9 @@
+package com.jr.distributed_inventory_system.repository;
+
+import com.jr.distributed_inventory_system.model.ReorderThreshold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReorderThresholdRepository extends JpaRepository<ReorderThreshold, String> {
+}
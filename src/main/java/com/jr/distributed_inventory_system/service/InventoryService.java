@@ -1,24 +1,44 @@
 package com.jr.distributed_inventory_system.service;
 
+import com.jr.distributed_inventory_system.cache.SoldOutRegistry;
+import com.jr.distributed_inventory_system.cache.StockNearCache;
+import com.jr.distributed_inventory_system.event.StockChangedEvent;
 import com.jr.distributed_inventory_system.exception.StockNotAvailableException;
 import com.jr.distributed_inventory_system.model.InventoryItem;
 import com.jr.distributed_inventory_system.repository.InventoryRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
+    private final StockNearCache stockNearCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SoldOutRegistry soldOutRegistry;
 
     /**
-     * Inyecta como dependencia el inventoryRepository
+     * Inyecta como dependencias el repositorio, el near-cache de lecturas y el publicador de eventos
      * @param inventoryRepository la interface
+     * @param stockNearCache cache local invalidado entre instancias
+     * @param eventPublisher publica StockChangedEvent tras cada escritura
+     * @param soldOutRegistry SKUs agotados para el rechazo rápido
      */
-    public InventoryService(InventoryRepository inventoryRepository) {
+    public InventoryService(InventoryRepository inventoryRepository,
+                            StockNearCache stockNearCache,
+                            ApplicationEventPublisher eventPublisher,
+                            SoldOutRegistry soldOutRegistry) {
         this.inventoryRepository = inventoryRepository;
+        this.stockNearCache = stockNearCache;
+        this.eventPublisher = eventPublisher;
+        this.soldOutRegistry = soldOutRegistry;
     }
 
     // -------------------------------------------------------------
@@ -28,9 +48,12 @@ public class InventoryService {
     /**
      * Retorna el nivel de stock actual para el Query Service.
      * No es transaccional y es rápido (Baja Latencia).
+     * Se sirve desde el near-cache local; la obsolescencia está acotada por la
+     * invalidación entre instancias y la caducidad de las entradas.
      */
     public Optional<InventoryItem> getStockLevel(String productId, String storeId) {
-        return inventoryRepository.findByProductIdAndStoreId(productId, storeId);
+        return stockNearCache.get(productId, storeId,
+                () -> inventoryRepository.findByProductIdAndStoreId(productId, storeId));
     }
 
     // -------------------------------------------------------------
@@ -59,6 +82,10 @@ public class InventoryService {
 
         // 2. Lógica Crítica de Consistencia: Verificar y Actualizar.
         if (currentStock < quantityToReserve) {
+            // Leído bajo bloqueo: si está a 0, las próximas reservas se rechazan sin transacción.
+            if (currentStock == 0) {
+                soldOutRegistry.markSoldOut(item.getSkuId(), item.getChangeSequence());
+            }
             // Lanza la excepción, lo que provocará un ROLLBACK automático de la transacción.
             throw new StockNotAvailableException(
                     "Stock insuficiente. Disponible: " + currentStock + ", Solicitado: " + quantityToReserve
@@ -68,9 +95,14 @@ public class InventoryService {
         // 3. Modificación del Stock.
         int newStock = currentStock - quantityToReserve;
         item.setStockLevel(newStock);
+        nextChangeSequence(item);
 
         // 4. Guardar (el bloqueo se libera al hacer commit al finalizar el método).
-        return inventoryRepository.save(item);
+        InventoryItem saved = inventoryRepository.save(item);
+
+        // 5. Notificar el cambio; los oyentes actúan solo tras el commit.
+        publishStockChanged(saved, currentStock);
+        return saved;
     }
 
     /**
@@ -89,12 +121,7 @@ public class InventoryService {
         InventoryItem item = itemOptional.orElseGet(() -> {
             // Si el ítem no existe y la cantidad es positiva (nueva recepción), lo creamos.
             if (quantityChange > 0) {
-                InventoryItem newItem = new InventoryItem();
-                newItem.setProductId(productId);
-                newItem.setStoreId(storeId);
-                // NOTA: Creamos un SKU ID simple para la clave primaria.
-                newItem.setSkuId(storeId + "_" + productId);
-                return newItem;
+                return newItem(productId, storeId);
             }
             throw new StockNotAvailableException("Producto o tienda no encontrada para ajuste: " + productId + " en " + storeId);
         });
@@ -110,6 +137,89 @@ public class InventoryService {
         }
 
         item.setStockLevel(newStock);
-        return inventoryRepository.save(item);
+        nextChangeSequence(item);
+        InventoryItem saved = inventoryRepository.save(item);
+        publishStockChanged(saved, currentStock);
+        return saved;
+    }
+
+    /**
+     * Ajuste masivo de stock para una tienda (p. ej. recepción de un camión completo).
+     * Todo o nada: si algún ajuste deja stock negativo, se revierte la transacción entera.
+     * Bloquea todas las filas con una única consulta. Las filas bloqueadas ya están gestionadas
+     * por JPA y se vuelcan por dirty checking; solo los SKUs nuevos pasan por saveAll (persist,
+     * sin SELECT previo), de modo que Hibernate agrupa los INSERT/UPDATE en lotes JDBC al hacer
+     * flush en el commit (ver 'hibernate.jdbc.batch_size' en el perfil perf).
+     * @param storeId ID de la tienda.
+     * @param quantityChanges cantidad a sumar/restar por productId.
+     */
+    @Transactional
+    public List<InventoryItem> updateStockBulk(String storeId, Map<String, Integer> quantityChanges) {
+        if (quantityChanges.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, InventoryItem> lockedByProduct = new HashMap<>();
+        for (InventoryItem item :
+                inventoryRepository.findByStoreIdAndProductIdInWithLock(storeId, quantityChanges.keySet())) {
+            lockedByProduct.put(item.getProductId(), item);
+        }
+
+        List<InventoryItem> changedItems = new ArrayList<>(quantityChanges.size());
+        List<InventoryItem> newItems = new ArrayList<>();
+        int[] previousStockLevels = new int[quantityChanges.size()];
+        for (Map.Entry<String, Integer> change : quantityChanges.entrySet()) {
+            String productId = change.getKey();
+            int quantityChange = change.getValue();
+
+            InventoryItem item = lockedByProduct.get(productId);
+            if (item == null) {
+                if (quantityChange <= 0) {
+                    throw new StockNotAvailableException("Producto o tienda no encontrada para ajuste: " + productId + " en " + storeId);
+                }
+                item = newItem(productId, storeId);
+                newItems.add(item);
+            }
+
+            int newStock = item.getStockLevel() + quantityChange;
+            if (newStock < 0) {
+                throw new StockNotAvailableException(
+                        "Ajuste fallido para " + productId + ". Stock resultante negativo: " + newStock
+                );
+            }
+            previousStockLevels[changedItems.size()] = item.getStockLevel();
+            item.setStockLevel(newStock);
+            nextChangeSequence(item);
+            changedItems.add(item);
+        }
+
+        if (!newItems.isEmpty()) {
+            inventoryRepository.saveAll(newItems);
+        }
+        for (int i = 0; i < changedItems.size(); i++) {
+            publishStockChanged(changedItems.get(i), previousStockLevels[i]);
+        }
+        return changedItems;
+    }
+
+    private InventoryItem newItem(String productId, String storeId) {
+        InventoryItem newItem = new InventoryItem();
+        newItem.setProductId(productId);
+        newItem.setStoreId(storeId);
+        // NOTA: Creamos un SKU ID simple para la clave primaria.
+        newItem.setSkuId(storeId + "_" + productId);
+        return newItem;
+    }
+
+    // Se invoca siempre con la fila bloqueada: la secuencia por SKU es monótona.
+    private void nextChangeSequence(InventoryItem item) {
+        item.setChangeSequence(item.getChangeSequence() + 1);
+    }
+
+    private void publishStockChanged(InventoryItem item, int previousStockLevel) {
+        eventPublisher.publishEvent(new StockChangedEvent(
+                item.getSkuId(), item.getProductId(), item.getStoreId(),
+                previousStockLevel, item.getStockLevel(), item.getChangeSequence()
+        ));
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.jr.distributed_inventory_system.storage;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Conexión propia de DurableCommitSyncer, abierta una sola vez al arrancar y FUERA del pool.
+ * Los commits esperan su fsync en afterCommit sin haber devuelto aún su conexión al pool;
+ * si el fsync pidiera otra conexión al pool, con más escritores que conexiones nadie
+ * podría avanzar (inanición del pool).
+ */
+public class CheckpointSyncConnection implements Runnable, AutoCloseable {
+
+    private final Connection connection;
+
+    public CheckpointSyncConnection(String url, String username, String password) {
+        try {
+            this.connection = DriverManager.getConnection(url, username, password);
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo abrir la conexión de fsync: " + url, e);
+        }
+    }
+
+    /**
+     * Ejecuta una sentencia de control (p. ej. SET WRITE_DELAY) sobre la conexión dedicada.
+     */
+    public synchronized void execute(String sql) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Fallo al ejecutar '" + sql + "'", e);
+        }
+    }
+
+    /**
+     * CHECKPOINT SYNC: vuelca el MVStore y fuerza el fsync del fichero.
+     */
+    @Override
+    public void run() {
+        execute("CHECKPOINT SYNC");
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("!!! Fallo al cerrar la conexión de fsync: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.jr.distributed_inventory_system.storage;
+
+/**
+ * Política de commit/fsync del modo durable (perfil 'durable').
+ */
+public enum DurabilityPolicy {
+
+    /**
+     * Un fsync por transacción antes de responder. Máxima durabilidad, mayor latencia.
+     */
+    PER_COMMIT,
+
+    /**
+     * Group commit: las transacciones que confirman mientras hay un fsync en curso esperan
+     * al siguiente, que las cubre a todas. Misma durabilidad que PER_COMMIT con menos fsyncs.
+     */
+    GROUPED,
+
+    /**
+     * fsync periódico en segundo plano. El commit responde sin esperar: ante una caída
+     * se pueden perder como mucho los últimos 'interval-ms' de escrituras confirmadas.
+     */
+    INTERVAL
+}
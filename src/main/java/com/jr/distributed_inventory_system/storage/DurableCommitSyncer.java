@@ -0,0 +1,190 @@
+package com.jr.distributed_inventory_system.storage;
+
+import com.jr.distributed_inventory_system.event.StockChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aplica la DurabilityPolicy a cada transacción de escritura.
+ * H2 no hace fsync al confirmar; la durabilidad se obtiene con 'syncAction'
+ * (CHECKPOINT SYNC sobre CheckpointSyncConnection, fuera del pool), que vuelca el
+ * MVStore y fuerza el fsync del fichero.
+ * La espera ocurre tras el COMMIT y antes de devolver la respuesta al cliente.
+ */
+public class DurableCommitSyncer implements AutoCloseable {
+
+    // Clave para registrar una sola sincronización por transacción (updateStockBulk publica N eventos).
+    private static final Object TX_KEY = new Object();
+
+    private final DurabilityPolicy policy;
+    private final Runnable syncAction;
+    private final long groupWindowMs;
+    private final AtomicLong syncCount = new AtomicLong();
+    private final AtomicLong syncNanos = new AtomicLong();
+
+    // GROUPED: lote abierto al que se unen los commits que esperan el próximo fsync.
+    private final Object groupLock = new Object();
+    private CompletableFuture<Void> openBatch = new CompletableFuture<>();
+    private int waitersInOpenBatch;
+    private volatile boolean running = true;
+    private Thread groupSyncer;
+
+    private ScheduledExecutorService intervalSyncer;
+
+    public DurableCommitSyncer(DurabilityPolicy policy, Runnable syncAction, long groupWindowMs, long intervalMs) {
+        this.policy = policy;
+        this.syncAction = syncAction;
+        this.groupWindowMs = groupWindowMs;
+
+        if (policy == DurabilityPolicy.GROUPED) {
+            groupSyncer = new Thread(this::groupCommitLoop, "durable-group-commit");
+            groupSyncer.setDaemon(true);
+            groupSyncer.start();
+        } else if (policy == DurabilityPolicy.INTERVAL) {
+            intervalSyncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "durable-interval-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            intervalSyncer.scheduleWithFixedDelay(this::syncQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Se ejecuta DENTRO de la transacción que modificó stock: engancha la espera de
+     * durabilidad a su commit (una sola vez por transacción).
+     */
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        if (policy == DurabilityPolicy.INTERVAL
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(TX_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(TX_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                awaitDurable();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TX_KEY);
+            }
+        });
+    }
+
+    /**
+     * Bloquea hasta que todo lo confirmado por este hilo esté en disco (según la política).
+     */
+    public void awaitDurable() {
+        switch (policy) {
+            case PER_COMMIT -> sync();
+            case GROUPED -> joinNextGroupSync().join();
+            case INTERVAL -> {
+                // El fsync periódico lo hace intervalSyncer; el commit no espera.
+            }
+        }
+    }
+
+    public long syncCount() {
+        return syncCount.get();
+    }
+
+    /**
+     * Latencia media de un fsync (syncAction) en milisegundos; 0 si aún no hubo ninguno.
+     */
+    public double averageSyncMillis() {
+        long count = syncCount.get();
+        return count == 0 ? 0 : syncNanos.get() / 1e6 / count;
+    }
+
+    public DurabilityPolicy policy() {
+        return policy;
+    }
+
+    private CompletableFuture<Void> joinNextGroupSync() {
+        synchronized (groupLock) {
+            waitersInOpenBatch++;
+            groupLock.notifyAll();
+            return openBatch;
+        }
+    }
+
+    private void groupCommitLoop() {
+        while (running) {
+            CompletableFuture<Void> batch;
+            try {
+                synchronized (groupLock) {
+                    while (running && waitersInOpenBatch == 0) {
+                        groupLock.wait();
+                    }
+                    if (!running) {
+                        break;
+                    }
+                }
+                if (groupWindowMs > 0) {
+                    // Ventana opcional para agrupar más commits en el mismo fsync.
+                    Thread.sleep(groupWindowMs);
+                }
+                synchronized (groupLock) {
+                    batch = openBatch;
+                    openBatch = new CompletableFuture<>();
+                    waitersInOpenBatch = 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            // Los commits que llegan durante este fsync se acumulan en el siguiente lote.
+            try {
+                sync();
+                batch.complete(null);
+            } catch (RuntimeException e) {
+                batch.completeExceptionally(e);
+            }
+        }
+        synchronized (groupLock) {
+            openBatch.completeExceptionally(new IllegalStateException("Almacenamiento durable cerrado"));
+        }
+    }
+
+    private void sync() {
+        long start = System.nanoTime();
+        syncAction.run();
+        syncNanos.addAndGet(System.nanoTime() - start);
+        syncCount.incrementAndGet();
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            System.err.println("!!! Fallo en el fsync periódico: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (groupSyncer != null) {
+            synchronized (groupLock) {
+                groupLock.notifyAll();
+            }
+        }
+        if (intervalSyncer != null) {
+            intervalSyncer.shutdown();
+            // Último fsync para no perder la cola del intervalo en un apagado ordenado.
+            syncQuietly();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.jr.distributed_inventory_system.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Modo de almacenamiento durable (perfil 'durable'): H2 en fichero (MVStore) en lugar de
+ * 'jdbc:h2:mem', con política de commit/fsync configurable.
+ * La URL y las opciones viven en application-durable.properties.
+ */
+@Configuration
+@Profile("durable")
+public class DurableStorageConfiguration {
+
+    private static final String FILE_URL_PREFIX = "jdbc:h2:file:";
+
+    /**
+     * Conexión dedicada al fsync, con la misma URL que el pool pero fuera de él.
+     * Falla al arrancar si la URL no es de fichero: otro perfil o propiedad que la sustituya
+     * (p. ej. de vuelta a 'jdbc:h2:mem') dejaría al perfil durable sin nada que persistir.
+     */
+    @Bean(destroyMethod = "close")
+    public CheckpointSyncConnection checkpointSyncConnection(DataSourceProperties properties) {
+        String url = properties.determineUrl();
+        if (url == null || !url.startsWith(FILE_URL_PREFIX)) {
+            throw new IllegalStateException("El perfil 'durable' requiere una URL '" + FILE_URL_PREFIX
+                    + "...' y spring.datasource.url es: " + url);
+        }
+        return new CheckpointSyncConnection(url, properties.determineUsername(), properties.determinePassword());
+    }
+
+    @Bean(destroyMethod = "close")
+    public DurableCommitSyncer durableCommitSyncer(
+            CheckpointSyncConnection checkpointSyncConnection,
+            @Value("${inventory.storage.durability:GROUPED}") DurabilityPolicy policy,
+            @Value("${inventory.storage.group-commit-window-ms:0}") long groupWindowMs,
+            @Value("${inventory.storage.interval-ms:1000}") long intervalMs) {
+
+        // WRITE_DELAY: cuánto puede esperar H2 para escribir un commit al fichero (sin fsync).
+        // Con PER_COMMIT/GROUPED se escribe de inmediato y el fsync lo fuerza CHECKPOINT SYNC.
+        long writeDelayMs = policy == DurabilityPolicy.INTERVAL ? intervalMs : 0;
+        checkpointSyncConnection.execute("SET WRITE_DELAY " + writeDelayMs);
+
+        System.out.println("--- ALMACENAMIENTO DURABLE: política " + policy + " ---");
+        return new DurableCommitSyncer(policy, checkpointSyncConnection, groupWindowMs, intervalMs);
+    }
+}
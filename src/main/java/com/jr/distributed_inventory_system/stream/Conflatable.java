@@ -0,0 +1,22 @@
+package com.jr.distributed_inventory_system.stream;
+
+/**
+ * Evento por SKU que un SseSubscriber puede fusionar en su buffer.
+ * @param <T> el propio tipo del evento.
+ */
+public interface Conflatable<T extends Conflatable<T>> {
+
+    String skuId();
+
+    /**
+     * Secuencia de cambios del SKU (ver InventoryItem#changeSequence): ordena eventos
+     * cuyos callbacks after-commit llegan desordenados.
+     */
+    long sequence();
+
+    /**
+     * Fusiona otro evento del mismo SKU con este. Cualquiera de los dos puede ser el más
+     * reciente: el resultado debe reflejar el de mayor secuencia.
+     */
+    T conflate(T other);
+}
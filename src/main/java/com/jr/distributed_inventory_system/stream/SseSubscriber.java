@@ -0,0 +1,183 @@
+package com.jr.distributed_inventory_system.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Entrega SSE a un único suscriptor. La comparten StockStreamHub y LowStockMonitor.
+ *
+ * - No bloqueante: offer() solo deja el evento en el buffer del suscriptor; el envío ocurre
+ *   en 'senders' (un hilo virtual por suscriptor con envíos pendientes), así que un cliente
+ *   lento solo se retrasa a sí mismo.
+ * - Conflación: el buffer guarda como mucho un evento por SKU (ver Conflatable).
+ * - Orden: se descarta cualquier evento con secuencia igual o menor que la última enviada
+ *   de su SKU; un callback after-commit que llega tarde nunca hace retroceder al cliente.
+ * - Acotado: si hay más de 'maxPending' SKUs pendientes (cliente lento o un ajuste masivo que
+ *   toca muchos SKUs a la vez) se vacía el buffer y se pide una resincronización: en lugar
+ *   de los cambios sueltos, el cliente recibe un evento RESYNC_EVENT con el estado completo.
+ * - offer() nunca llama al emisor: SseEmitter serializa send() y completeWithError() con el
+ *   mismo lock, y un envío atascado en el socket bloquearía al hilo que hace commit.
+ * @param <T> tipo de evento enviado.
+ */
+public class SseSubscriber<T extends Conflatable<T>> {
+
+    /**
+     * Evento con la lista completa del estado actual tras desbordar el buffer.
+     */
+    public static final String RESYNC_EVENT = "snapshot";
+
+    private final SseEmitter emitter;
+    private final Executor senders;
+    private final int maxPending;
+    private final Function<T, String> eventName;
+    private final Runnable onClose;
+
+    private final ConcurrentHashMap<String, T> pending = new ConcurrentHashMap<>();
+    // Última secuencia enviada por SKU. Solo la escribe quien tiene 'draining'.
+    private final ConcurrentHashMap<String, Long> lastSent = new ConcurrentHashMap<>();
+    // Nace en 'true': nada se envía hasta que salga el snapshot inicial (ver start()).
+    private final AtomicBoolean draining = new AtomicBoolean(true);
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // Activa desde un desbordamiento hasta que se lee el snapshot de resincronización.
+    private final AtomicBoolean resyncRequested = new AtomicBoolean();
+    private volatile Supplier<? extends Collection<T>> snapshotLoader;
+
+    /**
+     * @param emitter conexión SSE del cliente.
+     * @param senders ejecutor de los envíos (hilos virtuales).
+     * @param maxPending máximo de SKUs distintos pendientes antes de resincronizar.
+     * @param eventName nombre del evento SSE para cada elemento.
+     * @param onClose baja de los índices de interés; se invoca una sola vez.
+     */
+    public SseSubscriber(SseEmitter emitter, Executor senders, int maxPending,
+                         Function<T, String> eventName, Runnable onClose) {
+        this.emitter = emitter;
+        this.senders = senders;
+        this.maxPending = maxPending;
+        this.eventName = eventName;
+        this.onClose = onClose;
+
+        emitter.onCompletion(this::markClosed);
+        emitter.onTimeout(this::markClosed);
+        emitter.onError(error -> markClosed());
+    }
+
+    public SseEmitter emitter() {
+        return emitter;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Envía el estado inicial y después libera el buffer. Debe llamarse una vez, tras registrar
+     * al suscriptor en los índices: lo confirmado mientras se lee el snapshot queda en el buffer
+     * y, si el snapshot ya lo refleja, se descarta por su secuencia.
+     * @param snapshotLoader lectura del estado actual; se reutiliza para resincronizar.
+     * @param snapshotEventName nombre de un único evento con la lista completa; null para enviar
+     *                          cada elemento como su propio evento.
+     */
+    public void start(Supplier<? extends Collection<T>> snapshotLoader, String snapshotEventName) {
+        this.snapshotLoader = snapshotLoader;
+        try {
+            // Un desbordamiento previo al arranque ya queda cubierto por este snapshot.
+            resyncRequested.set(false);
+            List<T> snapshot = List.copyOf(snapshotLoader.get());
+            if (snapshotEventName != null) {
+                emitter.send(SseEmitter.event().name(snapshotEventName).data(snapshot));
+            } else {
+                for (T item : snapshot) {
+                    emitter.send(SseEmitter.event().name(eventName.apply(item)).data(item));
+                }
+            }
+            snapshot.forEach(item -> lastSent.merge(item.skuId(), item.sequence(), Math::max));
+        } catch (IOException | RuntimeException e) {
+            close(e);
+            return;
+        }
+        drain();
+    }
+
+    /**
+     * Encola un evento. Nunca bloquea ni toca el emisor: se llama desde el hilo que hace commit.
+     */
+    public void offer(T event) {
+        if (closed.get() || resyncRequested.get()) {
+            return; // Con una resincronización pedida, el snapshot ya incluirá este cambio.
+        }
+        Long sent = lastSent.get(event.skuId());
+        if (sent != null && event.sequence() <= sent) {
+            return; // El cliente ya tiene este cambio o uno posterior.
+        }
+        pending.merge(event.skuId(), event, (current, incoming) -> current.conflate(incoming));
+
+        if (pending.size() > maxPending) {
+            // En lugar de crecer sin límite (o cortar al cliente), el buffer se sustituye por un snapshot.
+            // Primero se vacía y después se marca: el snapshot se lee tras ver la marca, así que
+            // incluye todo lo descartado aquí.
+            pending.clear();
+            resyncRequested.set(true);
+        }
+        if (draining.compareAndSet(false, true)) {
+            senders.execute(this::drain);
+        }
+    }
+
+    /**
+     * Solo desde 'senders': completeWithError() espera al lock de un envío en curso.
+     */
+    private void close(Throwable cause) {
+        markClosed();
+        pending.clear();
+        emitter.completeWithError(cause);
+    }
+
+    private void drain() {
+        try {
+            do {
+                if (resyncRequested.get()) {
+                    resync();
+                }
+                for (String skuId : pending.keySet()) {
+                    T event = pending.remove(skuId);
+                    if (event != null && event.sequence() > lastSent.getOrDefault(skuId, Long.MIN_VALUE)) {
+                        emitter.send(SseEmitter.event().name(eventName.apply(event)).data(event));
+                        lastSent.put(skuId, event.sequence());
+                    }
+                }
+                draining.set(false);
+                // Re-chequeo: un evento pudo llegar entre el último envío y el set(false).
+            } while ((!pending.isEmpty() || resyncRequested.get()) && draining.compareAndSet(false, true));
+        } catch (IOException | RuntimeException e) {
+            // Cliente desconectado o fallo al leer el snapshot.
+            close(e);
+        }
+    }
+
+    /**
+     * Sustituye los cambios descartados por el estado completo. La marca se baja ANTES de leer:
+     * lo confirmado después vuelve al buffer y, si el snapshot ya lo refleja, se descarta por
+     * su secuencia.
+     */
+    private void resync() throws IOException {
+        resyncRequested.set(false);
+        List<T> snapshot = List.copyOf(snapshotLoader.get());
+        emitter.send(SseEmitter.event().name(RESYNC_EVENT).data(snapshot));
+        snapshot.forEach(item -> lastSent.merge(item.skuId(), item.sequence(), Math::max));
+    }
+
+    private void markClosed() {
+        if (closed.compareAndSet(false, true)) {
+            onClose.run();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.jr.distributed_inventory_system.stream;
+
+import com.jr.distributed_inventory_system.event.StockChangedEvent;
+import com.jr.distributed_inventory_system.model.InventoryItem;
+import com.jr.distributed_inventory_system.repository.InventoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Fan-out de cambios de stock a suscriptores SSE (sustituye el polling del storefront).
+ *
+ * - Índices de interés: un commit solo toca a los suscriptores de su SKU y de su tienda.
+ * - Entrega por SseSubscriber: no bloqueante, conflacionada por SKU, ordenada por la
+ *   secuencia de cambios y acotada por 'max-pending-per-subscriber'. Al desbordar (p. ej.
+ *   un ajuste masivo de más SKUs que el límite) el cliente recibe de nuevo el evento
+ *   'snapshot' con el stock actual en lugar de desconectarse.
+ * - Una conexión inactiva no ocupa ningún hilo: solo su entrada en los índices.
+ */
+@Component
+public class StockStreamHub {
+
+    final class Subscription {
+        private final SseSubscriber<StockUpdate> subscriber;
+        private final String storeId;
+        private final Set<String> skuIds;
+
+        private Subscription(SseEmitter emitter, String storeId, Set<String> skuIds) {
+            this.subscriber = new SseSubscriber<>(
+                    emitter, senders, maxPendingPerSubscriber, update -> "stock", () -> unregister(this));
+            this.storeId = storeId;
+            this.skuIds = skuIds;
+        }
+    }
+
+    private final InventoryRepository inventoryRepository;
+    private final int maxPendingPerSubscriber;
+    private final long sseTimeoutMs;
+
+    // Índices de interés: un commit solo toca a los suscriptores de su SKU y de su tienda.
+    private final ConcurrentHashMap<String, Set<Subscription>> bySku = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Subscription>> byStore = new ConcurrentHashMap<>();
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public StockStreamHub(InventoryRepository inventoryRepository,
+                          @Value("${inventory.stream.max-pending-per-subscriber:256}") int maxPendingPerSubscriber,
+                          @Value("${inventory.stream.sse-timeout-ms:1800000}") long sseTimeoutMs) {
+        this.inventoryRepository = inventoryRepository;
+        this.maxPendingPerSubscriber = maxPendingPerSubscriber;
+        this.sseTimeoutMs = sseTimeoutMs;
+    }
+
+    /**
+     * Suscripción a todos los SKUs de una tienda. Recibe primero el stock actual de la tienda.
+     */
+    public SseEmitter subscribeToStore(String storeId) {
+        Subscription subscription = register(new SseEmitter(sseTimeoutMs), storeId, Set.of());
+        senders.execute(() -> start(subscription, () -> inventoryRepository.findByStoreId(storeId)));
+        return subscription.subscriber.emitter();
+    }
+
+    /**
+     * Suscripción a un conjunto de SKUs (p. ej. los productos de una página). Recibe primero su stock actual.
+     */
+    public SseEmitter subscribeToSkus(Set<String> skuIds) {
+        Subscription subscription = register(new SseEmitter(sseTimeoutMs), null, Set.copyOf(skuIds));
+        senders.execute(() -> start(subscription, () -> inventoryRepository.findAllById(skuIds)));
+        return subscription.subscriber.emitter();
+    }
+
+    /**
+     * Máximo de SKUs por suscripción: el buffer conflacionado nunca podría contener más.
+     */
+    public int maxSkusPerSubscription() {
+        return maxPendingPerSubscriber;
+    }
+
+    /**
+     * Se ejecuta tras el COMMIT de cada escritura. Nunca bloquea: solo encola.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        Set<Subscription> skuSubscribers = bySku.get(event.skuId());
+        Set<Subscription> storeSubscribers = byStore.get(event.storeId());
+        if (skuSubscribers == null && storeSubscribers == null) {
+            return;
+        }
+
+        StockUpdate update = new StockUpdate(event.skuId(), event.productId(), event.storeId(),
+                event.previousStockLevel(), event.newStockLevel(), event.sequence());
+        if (skuSubscribers != null) {
+            skuSubscribers.forEach(subscription -> subscription.subscriber.offer(update));
+        }
+        if (storeSubscribers != null) {
+            storeSubscribers.forEach(subscription -> subscription.subscriber.offer(update));
+        }
+    }
+
+    public int subscriberCount() {
+        Set<Subscription> all = ConcurrentHashMap.newKeySet();
+        bySku.values().forEach(all::addAll);
+        byStore.values().forEach(all::addAll);
+        return all.size();
+    }
+
+    Subscription register(SseEmitter emitter, String storeId, Set<String> skuIds) {
+        Subscription subscription = new Subscription(emitter, storeId, skuIds);
+
+        if (storeId != null) {
+            addTo(byStore, storeId, subscription);
+        }
+        for (String skuId : skuIds) {
+            addTo(bySku, skuId, subscription);
+        }
+        return subscription;
+    }
+
+    /**
+     * Envía el snapshot inicial como un único evento y después libera el buffer.
+     * El snapshot se lee DESPUÉS de registrar la suscripción: los commits concurrentes quedan
+     * en el buffer y SseSubscriber descarta los que el snapshot ya refleja por su secuencia.
+     */
+    void start(Subscription subscription, Supplier<? extends Iterable<InventoryItem>> snapshotLoader) {
+        subscription.subscriber.start(() -> {
+            List<StockUpdate> snapshot = new ArrayList<>();
+            snapshotLoader.get().forEach(item -> snapshot.add(snapshotOf(item)));
+            return snapshot;
+        }, SseSubscriber.RESYNC_EVENT);
+    }
+
+    private void unregister(Subscription subscription) {
+        if (subscription.storeId != null) {
+            removeFrom(byStore, subscription.storeId, subscription);
+        }
+        for (String skuId : subscription.skuIds) {
+            removeFrom(bySku, skuId, subscription);
+        }
+    }
+
+    // compute/computeIfPresent hacen atómicos el alta y la baja frente a la eliminación del conjunto vacío.
+    private static void addTo(Map<String, Set<Subscription>> index, String key, Subscription subscription) {
+        index.compute(key, (k, subscriptions) -> {
+            Set<Subscription> target = subscriptions != null ? subscriptions : ConcurrentHashMap.newKeySet();
+            target.add(subscription);
+            return target;
+        });
+    }
+
+    private static void removeFrom(Map<String, Set<Subscription>> index, String key, Subscription subscription) {
+        index.computeIfPresent(key, (k, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    private static StockUpdate snapshotOf(InventoryItem item) {
+        return new StockUpdate(item.getSkuId(), item.getProductId(), item.getStoreId(),
+                item.getStockLevel(), item.getStockLevel(), item.getChangeSequence());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+}
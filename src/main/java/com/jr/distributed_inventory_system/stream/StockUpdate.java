@@ -0,0 +1,36 @@
+package com.jr.distributed_inventory_system.stream;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Delta de stock enviado a los suscriptores SSE.
+ * Si varias escrituras del mismo SKU se conflacionan antes de enviarse, el delta
+ * cubre todo el tramo: desde el stock previo a la más antigua hasta el de la más reciente.
+ * 'sequence' es la secuencia de cambios del SKU; el cliente puede usarla para ordenar.
+ */
+public record StockUpdate(
+        String skuId,
+        String productId,
+        String storeId,
+        int previousStockLevel,
+        int stockLevel,
+        long sequence
+) implements Conflatable<StockUpdate> {
+
+    @JsonProperty("delta")
+    public int delta() {
+        return stockLevel - previousStockLevel;
+    }
+
+    /**
+     * Fusiona dos actualizaciones del mismo SKU sin importar el orden de llegada:
+     * el punto de partida sale de la de menor secuencia y el nivel de la de mayor.
+     */
+    @Override
+    public StockUpdate conflate(StockUpdate other) {
+        StockUpdate older = other.sequence() < sequence ? other : this;
+        StockUpdate newer = other.sequence() > sequence ? other : this;
+        return new StockUpdate(skuId, productId, storeId,
+                older.previousStockLevel(), newer.stockLevel(), newer.sequence());
+    }
+}
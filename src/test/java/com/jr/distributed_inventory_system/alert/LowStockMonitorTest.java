@@ -0,0 +1,219 @@
+package com.jr.distributed_inventory_system.alert;
+
+import com.jr.distributed_inventory_system.event.StockChangedEvent;
+import com.jr.distributed_inventory_system.model.InventoryItem;
+import com.jr.distributed_inventory_system.model.ReorderThreshold;
+import com.jr.distributed_inventory_system.repository.InventoryRepository;
+import com.jr.distributed_inventory_system.repository.ReorderThresholdRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.servlet.mvc.method.annotation.RecordingEmitterHandler;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LowStockMonitorTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private ReorderThresholdRepository thresholdRepository;
+
+    private ReorderThresholds thresholds;
+    private LowStockMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        thresholds = new ReorderThresholds(thresholdRepository, 5); // Umbral por defecto: 5
+        monitor = new LowStockMonitor(inventoryRepository, thresholds, 1_000, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.shutdown();
+    }
+
+    // --- Prueba 1: Una reserva que cruza el umbral entra en el índice ---
+    @Test
+    void whenStockCrossesBelowThreshold_thenSkuIsIndexed() {
+        monitor.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 6, 4, 1));
+
+        List<LowStockAlert> below = monitor.currentlyBelow("S001");
+        assertEquals(1, below.size());
+        assertEquals(4, below.get(0).stockLevel());
+        assertEquals(LowStockAlert.Type.BELOW, below.get(0).type());
+    }
+
+    // --- Prueba 2: Una recepción que devuelve el stock sobre el umbral lo saca del índice ---
+    @Test
+    void whenStockRecovers_thenSkuLeavesIndex() {
+        monitor.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 6, 4, 1));
+        monitor.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 4, 20, 2));
+
+        assertTrue(monitor.currentlyBelow("S001").isEmpty());
+    }
+
+    // --- Prueba 3: Bajadas dentro de la zona bajo umbral actualizan el nivel ---
+    @Test
+    void whenStockKeepsFallingBelowThreshold_thenIndexHasLatestLevel() {
+        monitor.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 6, 4, 1));
+        monitor.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 4, 1, 2));
+
+        assertEquals(1, monitor.currentlyBelow("S001").get(0).stockLevel());
+    }
+
+    // --- Prueba 4: Umbral por tienda y por SKU, consulta filtrada por tienda ---
+    @Test
+    void whenStoreAndSkuThresholdsDiffer_thenEachSkuUsesItsOwn() {
+        thresholds.setStoreThreshold("S002", 20);
+        thresholds.setSkuThreshold("S001_P002", 60);
+
+        monitor.onStockChanged(new StockChangedEvent("S002_P001", "P001", "S002", 25, 15, 1)); // < 20 tienda
+        monitor.onStockChanged(new StockChangedEvent("S001_P002", "P002", "S001", 55, 50, 1)); // < 60 SKU (ya estaba bajo)
+        monitor.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 10, 8, 1));  // >= 5 defecto
+
+        assertEquals(1, monitor.currentlyBelow("S002").size());
+        assertEquals(1, monitor.currentlyBelow("S001").size());
+        assertEquals("S001_P002", monitor.currentlyBelow("S001").get(0).skuId());
+        assertEquals(2, monitor.currentlyBelow(null).size());
+    }
+
+    // --- Prueba 5: El índice inicial se construye con un único recorrido ---
+    @Test
+    void whenApplicationReady_thenIndexIsBuiltOnce() {
+        InventoryItem low = new InventoryItem();
+        low.setSkuId("S001_P001");
+        low.setProductId("P001");
+        low.setStoreId("S001");
+        low.setStockLevel(2);
+        when(inventoryRepository.findAll()).thenReturn(List.of(low));
+
+        monitor.buildIndex();
+
+        assertEquals(1, monitor.currentlyBelow("S001").size());
+        verify(inventoryRepository, times(1)).findAll();
+    }
+
+    // --- Prueba 6: Un callback que llega tarde no deshace un cambio más reciente ---
+    @Test
+    void whenOlderEventArrivesLate_thenItIsIgnored() {
+        monitor.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 6, 4, 2));
+        monitor.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 3, 6, 1)); // Commit 1, tardío
+
+        List<LowStockAlert> below = monitor.currentlyBelow("S001");
+        assertEquals(1, below.size(), "El commit 2 (stock 4) es el último: el SKU sigue bajo umbral");
+        assertEquals(4, below.get(0).stockLevel());
+    }
+
+    // --- Prueba 7: Un suscriptor lento no retrasa a los demás y se resincroniza al desbordar ---
+    @Test
+    void whenSubscriberIsSlow_thenOthersStillReceiveAndSlowIsResynced() throws Exception {
+        AlertEmitter slow = new AlertEmitter();
+        AlertEmitter fast = new AlertEmitter();
+        fast.gate.countDown();
+        monitor.subscribe(slow, null);
+        monitor.subscribe(fast, null);
+
+        monitor.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 6, 4, 1));
+        assertTrue(slow.sendStarted.await(1, TimeUnit.SECONDS)); // Retiene el writeLock del lento
+        // Con el lento bloqueado, más cruces de SKUs distintos que su buffer (4)
+        long start = System.nanoTime();
+        for (int i = 2; i <= 6; i++) {
+            monitor.onStockChanged(new StockChangedEvent("S001_P00" + i, "P00" + i, "S001", 6, 4, 1));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500), "La publicación no debe bloquear");
+
+        waitForBelow(fast, 6);
+        assertEquals(2, monitor.subscriberCount(), "El lento no se desconecta: se resincroniza");
+
+        slow.gate.countDown();
+        waitForBelow(slow, 6);
+        assertFalse(slow.snapshots.isEmpty(), "El lento recibe el conjunto completo como snapshot");
+    }
+
+    // --- Prueba 8: Los umbrales se persisten y se recargan al reconstruir el índice ---
+    @Test
+    void whenThresholdsWereStored_thenIndexUsesThemAfterRestart() {
+        thresholds.setSkuThreshold("S001_P001", 60);
+        verify(thresholdRepository).save(argThat(stored ->
+                stored.getScope() == ReorderThreshold.Scope.SKU && stored.getThreshold() == 60));
+
+        // "Reinicio": umbrales vacíos en memoria, solo la tabla
+        ReorderThresholds restarted = new ReorderThresholds(thresholdRepository, 5);
+        LowStockMonitor restartedMonitor = new LowStockMonitor(inventoryRepository, restarted, 1_000, 4);
+        InventoryItem item = new InventoryItem();
+        item.setSkuId("S001_P001");
+        item.setProductId("P001");
+        item.setStoreId("S001");
+        item.setStockLevel(50);
+        when(thresholdRepository.findAll()).thenReturn(List.of(
+                new ReorderThreshold(ReorderThreshold.Scope.SKU, "S001_P001", 60)));
+        when(inventoryRepository.findAll()).thenReturn(List.of(item));
+
+        restartedMonitor.buildIndex();
+        restartedMonitor.shutdown();
+
+        assertEquals(1, restartedMonitor.currentlyBelow("S001").size(), "50 < 60: el umbral persistido se aplica");
+        assertEquals(60, restartedMonitor.currentlyBelow("S001").get(0).threshold());
+    }
+
+    private static void waitForBelow(AlertEmitter emitter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (emitter.below.size() < expected) {
+            assertTrue(System.nanoTime() < deadline, "El suscriptor no recibió todas las alertas: " + emitter.below);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * SseEmitter real cuyo "socket" registra las alertas y bloquea cada envío de una alerta hasta
+     * abrir 'gate'. El bloqueo ocurre dentro de SseEmitter.send(), reteniendo su writeLock.
+     */
+    private static class AlertEmitter extends SseEmitter {
+
+        final List<List<?>> snapshots = new CopyOnWriteArrayList<>();
+        // SKUs bajo umbral que ve el cliente
+        final Set<String> below = ConcurrentHashMap.newKeySet();
+        final CountDownLatch sendStarted = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+
+        AlertEmitter() {
+            RecordingEmitterHandler.attach(this, this::write);
+        }
+
+        private void write(Object data) throws IOException {
+            if (data instanceof List<?> snapshot) {
+                snapshots.add(snapshot);
+                below.clear();
+                snapshot.forEach(alert -> below.add(((LowStockAlert) alert).skuId()));
+            } else if (data instanceof LowStockAlert alert) {
+                sendStarted.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                if (alert.type() == LowStockAlert.Type.BELOW) {
+                    below.add(alert.skuId());
+                } else {
+                    below.remove(alert.skuId());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.jr.distributed_inventory_system.benchmark;
+
+import com.jr.distributed_inventory_system.DistributedInventorySystemApplication;
+import com.jr.distributed_inventory_system.service.InventoryService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark del perfil 'perf' frente a la configuración por defecto.
+ * Ejecutar con: mvn test -Pbenchmark
+ *
+ * Cada escenario arranca un contexto Spring independiente (BD H2 en memoria nueva) y mide:
+ *  - Reservas: reserveStock concurrente, una transacción por reserva.
+ *  - Bulk: updateStockBulk que crea BULK_SKUS artículos y otro que los ajusta todos.
+ */
+@Tag("benchmark")
+class PersistenceProfileBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int RESERVATIONS_PER_THREAD = 500;
+    private static final int BULK_SKUS = 5_000;
+    private static final int WARMUP_ROUNDS = 1;
+
+    @Test
+    void compareDefaultAndPerfProfiles() throws Exception {
+        Result before = runScenario("default");
+        Result after = runScenario("perf");
+
+        System.out.println("=== PersistenceProfileBenchmark ===");
+        System.out.printf("%-8s | reservas/s %10.0f | bulk insert %6d ms | bulk update %6d ms%n",
+                "default", before.reservationsPerSecond(), before.bulkInsertMs(), before.bulkUpdateMs());
+        System.out.printf("%-8s | reservas/s %10.0f | bulk insert %6d ms | bulk update %6d ms%n",
+                "perf", after.reservationsPerSecond(), after.bulkInsertMs(), after.bulkUpdateMs());
+    }
+
+    private Result runScenario(String profile) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DistributedInventorySystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:bench-" + profile + ";QUERY_CACHE_SIZE="
+                        + ("perf".equals(profile) ? 64 : 8));
+        if (!"default".equals(profile)) {
+            builder.profiles(profile);
+        }
+
+        try (ConfigurableApplicationContext context = builder.run()) {
+            InventoryService inventoryService = context.getBean(InventoryService.class);
+
+            Result result = null;
+            for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                result = measure(inventoryService, "R" + round + "_");
+            }
+            return result;
+        }
+    }
+
+    private Result measure(InventoryService inventoryService, String prefix) throws Exception {
+        Map<String, Integer> receipts = new LinkedHashMap<>();
+        Map<String, Integer> adjustments = new LinkedHashMap<>();
+        for (int i = 0; i < BULK_SKUS; i++) {
+            receipts.put(prefix + "P" + i, 1_000);
+            adjustments.put(prefix + "P" + i, -1);
+        }
+
+        // --- Bulk insert: BULK_SKUS altas en una sola transacción ---
+        long start = System.nanoTime();
+        inventoryService.updateStockBulk("BULK", receipts);
+        long bulkInsertMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // --- Bulk update: ajuste de todos los SKUs en una sola transacción ---
+        start = System.nanoTime();
+        inventoryService.updateStockBulk("BULK", adjustments);
+        long bulkUpdateMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // --- Reservas concurrentes: cada hilo trabaja sobre su propio SKU ---
+        for (int t = 0; t < THREADS; t++) {
+            inventoryService.updateStock(prefix + "RES" + t, "S-BENCH", RESERVATIONS_PER_THREAD);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        start = System.nanoTime();
+        Future<?>[] futures = new Future<?>[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            String productId = prefix + "RES" + t;
+            futures[t] = executor.submit(() -> {
+                for (int i = 0; i < RESERVATIONS_PER_THREAD; i++) {
+                    inventoryService.reserveStock(productId, "S-BENCH", 1);
+                }
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long reservationNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        int reservations = THREADS * RESERVATIONS_PER_THREAD;
+        assertEquals(0, inventoryService.getStockLevel(prefix + "RES0", "S-BENCH").orElseThrow().getStockLevel());
+        return new Result(reservations / (reservationNanos / 1e9), bulkInsertMs, bulkUpdateMs);
+    }
+
+    private record Result(double reservationsPerSecond, long bulkInsertMs, long bulkUpdateMs) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.jr.distributed_inventory_system.benchmark;
+
+import com.jr.distributed_inventory_system.DistributedInventorySystemApplication;
+import com.jr.distributed_inventory_system.service.InventoryService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Throughput de POST /inventory/reservations con un 95% de rechazos por stock agotado,
+ * sin y con el rechazo rápido (inventory.sold-out.fast-path-enabled).
+ * Solo mide el rechazo rápido: StockNotAvailableException se crea sin stack trace en ambas
+ * ejecuciones, así que la línea "sin fast-path" ya incluye ese ahorro y no es el código
+ * anterior a la optimización.
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class SoldOutFastPathBenchmark {
+
+    private static final int SKUS = 20;              // 19 agotados + 1 con stock => 95% de rechazos
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 2_000;
+    private static final String STORE_ID = "S-SELLOUT";
+
+    @Test
+    void compareRejectionThroughput() throws Exception {
+        Result before = runScenario(false);
+        Result after = runScenario(true);
+
+        System.out.println("=== SoldOutFastPathBenchmark (95% rechazos) ===");
+        System.out.printf("%-16s | %10.0f req/s | rechazos %5.1f%%%n",
+                "sin fast-path", before.requestsPerSecond(), before.rejectionRate() * 100);
+        System.out.printf("%-16s | %10.0f req/s | rechazos %5.1f%%%n",
+                "con fast-path", after.requestsPerSecond(), after.rejectionRate() * 100);
+    }
+
+    private Result runScenario(boolean fastPathEnabled) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DistributedInventorySystemApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:sellout-" + fastPathEnabled,
+                        "spring.jpa.show-sql=false",
+                        "inventory.sold-out.fast-path-enabled=" + fastPathEnabled,
+                        // Los reintentos del pago no deben dormir el benchmark
+                        "resilience4j.retry.instances.paymentRetry.wait-duration=1ms");
+
+        try (ConfigurableApplicationContext context = builder.run()) {
+            InventoryService inventoryService = context.getBean(InventoryService.class);
+            MockMvc mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+            // SKU 0 con stock de sobra; el resto creado y vendido hasta 0
+            inventoryService.updateStock("P0", STORE_ID, 10_000_000);
+            for (int i = 1; i < SKUS; i++) {
+                inventoryService.updateStock("P" + i, STORE_ID, 1);
+                inventoryService.updateStock("P" + i, STORE_ID, -1);
+            }
+
+            runLoad(mockMvc); // Calentamiento
+            return runLoad(mockMvc);
+        }
+    }
+
+    private Result runLoad(MockMvc mockMvc) throws Exception {
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        Future<?>[] futures = new Future<?>[THREADS];
+
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures[t] = executor.submit(() -> {
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    String productId = "P" + (i % SKUS);
+                    String body = "{\"transactionId\": \"T" + thread + "-" + i + "\", \"productId\": \"" + productId
+                            + "\", \"storeId\": \"" + STORE_ID + "\", \"quantity\": 1}";
+                    int status = mockMvc.perform(post("/inventory/reservations")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse().getStatus();
+                    if (status == 409) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        int total = THREADS * REQUESTS_PER_THREAD;
+        double rejectionRate = rejected.get() / (double) total;
+        assertTrue(rejectionRate >= 0.90, "La carga debe ser ~95% rechazos: " + rejectionRate);
+        return new Result(total / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1)), rejectionRate);
+    }
+
+    private record Result(double requestsPerSecond, double rejectionRate) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.jr.distributed_inventory_system.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MulticastInvalidationTransportTest {
+
+    private static final UUID ORIGIN = UUID.randomUUID();
+
+    // --- Prueba 1: Un lote codificado se decodifica igual, con su origen ---
+    @Test
+    void whenBatchIsEncoded_thenDecodeRoundTrips() throws IOException {
+        List<StockInvalidation> batch = List.of(
+                new StockInvalidation("S001_P001", 3, ORIGIN),
+                new StockInvalidation("S002_P999", Long.MAX_VALUE, ORIGIN));
+
+        byte[] payload = MulticastInvalidationTransport.encode(batch);
+
+        assertEquals(batch, MulticastInvalidationTransport.decode(payload, 0, payload.length));
+    }
+
+    // --- Prueba 2: Un lote vacío también es válido ---
+    @Test
+    void whenBatchIsEmpty_thenDecodeReturnsEmpty() throws IOException {
+        byte[] payload = MulticastInvalidationTransport.encode(List.of());
+
+        assertTrue(MulticastInvalidationTransport.decode(payload, 0, payload.length).isEmpty());
+    }
+
+    // --- Prueba 3: Un recuento imposible se rechaza sin reservar memoria ---
+    @Test
+    void whenCountExceedsDatagram_thenDecodeRejectsIt() throws IOException {
+        for (int size : new int[]{Integer.MAX_VALUE, -1}) {
+            byte[] payload = header(size);
+            assertThrows(IOException.class, () -> MulticastInvalidationTransport.decode(payload, 0, payload.length));
+        }
+    }
+
+    // --- Prueba 4: Un lote de orígenes mezclados no se codifica ---
+    @Test
+    void whenOriginsAreMixed_thenEncodeRejectsBatch() {
+        List<StockInvalidation> batch = List.of(
+                new StockInvalidation("S001_P001", 1, ORIGIN),
+                new StockInvalidation("S001_P002", 1, UUID.randomUUID()));
+
+        assertThrows(IllegalArgumentException.class, () -> MulticastInvalidationTransport.encode(batch));
+    }
+
+    private static byte[] header(int size) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(ORIGIN.getMostSignificantBits());
+        out.writeLong(ORIGIN.getLeastSignificantBits());
+        out.writeInt(size);
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
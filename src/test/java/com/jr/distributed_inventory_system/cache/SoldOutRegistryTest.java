@@ -0,0 +1,99 @@
+package com.jr.distributed_inventory_system.cache;
+
+import com.jr.distributed_inventory_system.event.StockChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoldOutRegistryTest {
+
+    private static final String SKU_ID = "S001_P001";
+    private static final long TTL_MS = 60_000;
+
+    private InMemoryInvalidationTransport transport;
+    private StockInvalidationChannel channel;
+    private SoldOutRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        transport = new InMemoryInvalidationTransport();
+        channel = new StockInvalidationChannel(new StockNearCache(true, 1_000, 1_000), transport, 60_000, 32);
+        registry = new SoldOutRegistry(channel, transport, true, TTL_MS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdown();
+    }
+
+    // --- Prueba 1: Un commit que deja el stock en 0 marca el SKU; una reposición lo libera ---
+    @Test
+    void whenStockReachesZeroAndIsRestocked_thenMarkIsSetAndCleared() {
+        registry.onStockChanged(new StockChangedEvent(SKU_ID, "P001", "S001", 1, 0, 1));
+        assertTrue(registry.isSoldOut(SKU_ID));
+
+        registry.onStockChanged(new StockChangedEvent(SKU_ID, "P001", "S001", 0, 10, 2));
+        assertFalse(registry.isSoldOut(SKU_ID));
+    }
+
+    // --- Prueba 2: Las invalidaciones propias no borran la marca ---
+    @Test
+    void whenOwnInvalidationIsDelivered_thenSkuStaysSoldOut() {
+        registry.onStockChanged(new StockChangedEvent(SKU_ID, "P001", "S001", 1, 0, 1));
+        channel.onStockChanged(new StockChangedEvent(SKU_ID, "P001", "S001", 1, 0, 1));
+        channel.flush(); // El transporte en memoria entrega el lote también a este nodo
+
+        assertTrue(registry.isSoldOut(SKU_ID), "La propia venta del último artículo no debe reabrir el camino lento");
+    }
+
+    // --- Prueba 3: Una invalidación de otra instancia vuelve a pasar por el camino lento ---
+    @Test
+    void whenRemoteInvalidationArrives_thenMarkIsCleared() {
+        registry.markSoldOut(SKU_ID, 1);
+        transport.send(List.of(new StockInvalidation(SKU_ID, 2, UUID.randomUUID())));
+
+        assertFalse(registry.isSoldOut(SKU_ID));
+    }
+
+    // --- Prueba 4: La marca caduca aunque el mensaje de reposición se pierda ---
+    @Test
+    void whenTtlElapses_thenMarkExpires() throws InterruptedException {
+        SoldOutRegistry shortLived = new SoldOutRegistry(channel, transport, true, 20);
+        shortLived.markSoldOut(SKU_ID, 1);
+        assertTrue(shortLived.isSoldOut(SKU_ID));
+
+        Thread.sleep(40);
+
+        assertFalse(shortLived.isSoldOut(SKU_ID));
+    }
+
+    // --- Prueba 5: Con el rechazo rápido desactivado nunca se marca ---
+    @Test
+    void whenDisabled_thenNothingIsSoldOut() {
+        SoldOutRegistry disabled = new SoldOutRegistry(channel, transport, false, TTL_MS);
+        disabled.markSoldOut(SKU_ID, 1);
+
+        assertFalse(disabled.isSoldOut(SKU_ID));
+    }
+
+    // --- Prueba 6: Un "stock 0" que llega tarde no vuelve a marcar un SKU ya repuesto ---
+    @Test
+    void whenSoldOutEventArrivesAfterRestock_thenItIsIgnored() {
+        registry.onStockChanged(new StockChangedEvent(SKU_ID, "P001", "S001", 0, 10, 3)); // Reposición (commit 3)
+        registry.onStockChanged(new StockChangedEvent(SKU_ID, "P001", "S001", 1, 0, 2));  // Commit 2, tardío
+
+        assertFalse(registry.isSoldOut(SKU_ID), "El commit 3 (stock 10) es el último");
+
+        // Tampoco el camino lento con una lectura anterior, ni una invalidación remota antigua deshace una marca nueva
+        registry.markSoldOut(SKU_ID, 1);
+        assertFalse(registry.isSoldOut(SKU_ID));
+        registry.onStockChanged(new StockChangedEvent(SKU_ID, "P001", "S001", 1, 0, 4));
+        transport.send(List.of(new StockInvalidation(SKU_ID, 3, UUID.randomUUID())));
+        assertTrue(registry.isSoldOut(SKU_ID), "La invalidación remota del commit 3 es anterior a la marca del 4");
+    }
+}
@@ -0,0 +1,163 @@
+package com.jr.distributed_inventory_system.cache;
+
+import com.jr.distributed_inventory_system.event.StockChangedEvent;
+import com.jr.distributed_inventory_system.model.InventoryItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockInvalidationChannelTest {
+
+    private static final String PRODUCT_ID = "P001";
+    private static final String STORE_ID = "S001";
+    private static final String SKU_ID = STORE_ID + "_" + PRODUCT_ID;
+    private static final long FLUSH_INTERVAL_MS = 5;
+    private static final long MAX_STALENESS_MS = 60_000; // Muy alto: solo la invalidación puede refrescar
+
+    // "Base de datos" compartida por los dos nodos simulados
+    private final AtomicInteger sharedStock = new AtomicInteger(10);
+    private final AtomicLong sharedSequence = new AtomicLong(1);
+    private final AtomicInteger databaseReads = new AtomicInteger();
+
+    private InMemoryInvalidationTransport transport;
+    private StockNearCache cacheNodeA;
+    private StockNearCache cacheNodeB;
+    private StockInvalidationChannel channelNodeA;
+    private StockInvalidationChannel channelNodeB;
+
+    @BeforeEach
+    void setUp() {
+        // Dos instancias que comparten el mismo transporte en memoria
+        transport = new InMemoryInvalidationTransport();
+        cacheNodeA = new StockNearCache(true, MAX_STALENESS_MS, 1_000);
+        cacheNodeB = new StockNearCache(true, MAX_STALENESS_MS, 1_000);
+        channelNodeA = new StockInvalidationChannel(cacheNodeA, transport, FLUSH_INTERVAL_MS, 32);
+        channelNodeB = new StockInvalidationChannel(cacheNodeB, transport, FLUSH_INTERVAL_MS, 32);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channelNodeA.shutdown();
+        channelNodeB.shutdown();
+    }
+
+    // --- Prueba 1: Lecturas repetidas se sirven desde el near-cache ---
+    @Test
+    void whenReadTwice_thenDatabaseIsHitOnce() {
+        assertEquals(10, readOnNodeB());
+        assertEquals(10, readOnNodeB());
+        assertEquals(1, databaseReads.get(), "La segunda lectura debe salir del near-cache");
+    }
+
+    // --- Prueba 2: Escritura en A invalida B con obsolescencia acotada ---
+    @Test
+    void whenWriteOnNodeA_thenNodeBSeesNewStockWithinBound() throws InterruptedException {
+        assertEquals(10, readOnNodeB()); // B cachea el valor 10
+
+        // Commit en el nodo A
+        sharedStock.set(7);
+        sharedSequence.set(2);
+        long committedAt = System.nanoTime();
+        channelNodeA.onStockChanged(new StockChangedEvent(SKU_ID, PRODUCT_ID, STORE_ID, 10, 7, 2));
+
+        while (readOnNodeB() != 7) {
+            assertTrue(System.nanoTime() - committedAt < TimeUnit.SECONDS.toNanos(1), "B nunca vio el nuevo stock");
+            Thread.sleep(1);
+        }
+        long stalenessMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - committedAt);
+
+        // Cota: un intervalo de flush más margen para la planificación de hilos
+        assertTrue(stalenessMs <= FLUSH_INTERVAL_MS + 100, "Obsolescencia fuera de cota: " + stalenessMs + " ms");
+    }
+
+    // --- Prueba 3: Bajo carga, las invalidaciones del mismo SKU se coalescen ---
+    @Test
+    void whenManyWritesOnSameSku_thenBroadcastIsCoalesced() {
+        List<List<StockInvalidation>> sentBatches = new CopyOnWriteArrayList<>();
+        InvalidationTransport recordingTransport = new InMemoryInvalidationTransport() {
+            @Override
+            public void send(List<StockInvalidation> batch) {
+                sentBatches.add(batch);
+                super.send(batch);
+            }
+        };
+        // Flush manual: intervalo muy largo para controlar el momento del envío
+        StockInvalidationChannel channel =
+                new StockInvalidationChannel(new StockNearCache(true, MAX_STALENESS_MS, 1_000), recordingTransport, 60_000, 32);
+
+        for (int i = 0; i < 1_000; i++) {
+            channel.onStockChanged(new StockChangedEvent(SKU_ID, PRODUCT_ID, STORE_ID, i + 1, i, i + 1));
+        }
+        channel.onStockChanged(new StockChangedEvent("S002_P001", PRODUCT_ID, "S002", 5, 4, 1));
+        channel.flush();
+        channel.shutdown();
+
+        int messages = sentBatches.stream().mapToInt(List::size).sum();
+        assertEquals(2, messages, "1001 escrituras sobre 2 SKUs deben viajar como 2 invalidaciones");
+        // La invalidación coalescida lleva la secuencia más alta del SKU
+        assertTrue(sentBatches.stream().flatMap(List::stream)
+                .anyMatch(invalidation -> invalidation.skuId().equals(SKU_ID) && invalidation.version() == 1_000));
+    }
+
+    // --- Prueba 4: Una invalidación vieja o repetida no expulsa un valor más nuevo ---
+    @Test
+    void whenInvalidationIsOlderThanCachedVersion_thenEntryIsKept() {
+        sharedSequence.set(5);
+        assertEquals(10, readOnNodeB()); // Cachea la versión 5
+
+        cacheNodeB.invalidate(SKU_ID, 4); // Llega tarde, fuera de orden
+        assertEquals(10, readOnNodeB());
+        assertEquals(1, databaseReads.get(), "La versión cacheada (5) es más nueva que la invalidación (4)");
+
+        cacheNodeB.invalidate(SKU_ID, 6);
+        readOnNodeB();
+        assertEquals(2, databaseReads.get());
+    }
+
+    // --- Prueba 5: Una lectura de BD más vieja que una invalidación no se cachea ---
+    @Test
+    void whenLoadIsOlderThanInvalidation_thenItIsNotCached() {
+        cacheNodeB.invalidate(SKU_ID, 3); // La BD de este nodo todavía devuelve la versión 1
+        readOnNodeB();
+        readOnNodeB();
+        assertEquals(2, databaseReads.get(), "Una lectura anterior a la invalidación no debe cachearse");
+    }
+
+    // --- Prueba 6: El mapa está acotado: las entradas caducadas se barren ---
+    @Test
+    void whenCacheIsFull_thenExpiredEntriesAreSwept() throws InterruptedException {
+        StockNearCache smallCache = new StockNearCache(true, 10, 4);
+        for (int i = 0; i < 4; i++) {
+            smallCache.invalidate("S001_P" + i, 1);
+        }
+        assertEquals(4, smallCache.size());
+
+        Thread.sleep(20); // Caducan todas
+        smallCache.invalidate("S001_P99", 1);
+
+        assertEquals(1, smallCache.size());
+    }
+
+    private int readOnNodeB() {
+        Optional<InventoryItem> item = cacheNodeB.get(PRODUCT_ID, STORE_ID, () -> {
+            databaseReads.incrementAndGet();
+            InventoryItem fromDb = new InventoryItem();
+            fromDb.setSkuId(SKU_ID);
+            fromDb.setProductId(PRODUCT_ID);
+            fromDb.setStoreId(STORE_ID);
+            fromDb.setStockLevel(sharedStock.get());
+            fromDb.setChangeSequence(sharedSequence.get());
+            return Optional.of(fromDb);
+        });
+        return item.orElseThrow().getStockLevel();
+    }
+}
@@ -0,0 +1,38 @@
+package com.jr.distributed_inventory_system.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerformanceProfileConfigurationTest {
+
+    // --- Prueba 1: N = nucleos * (1 + espera / CPU) ---
+    @Test
+    void whenTransactionsWaitOnLocks_thenPoolGrowsBeyondCores() {
+        assertEquals(24, PerformanceProfileConfiguration.poolSize(8, 4, 2, 64));
+    }
+
+    // --- Prueba 2: El pool nunca supera el máximo configurado ---
+    @Test
+    void whenFormulaExceedsMax_thenPoolIsCapped() {
+        assertEquals(64, PerformanceProfileConfiguration.poolSize(32, 10, 1, 64));
+    }
+
+    // --- Prueba 3: Sin esperas, una conexión por núcleo ---
+    @Test
+    void whenNoLockWait_thenPoolEqualsCores() {
+        assertEquals(4, PerformanceProfileConfiguration.poolSize(4, 0, 2, 64));
+    }
+
+    // --- Prueba 4: Con menos máximo que núcleos, manda el máximo ---
+    @Test
+    void whenMaxIsBelowCores_thenPoolIsCappedAtMax() {
+        assertEquals(8, PerformanceProfileConfiguration.poolSize(16, 0, 2, 8));
+        assertEquals(8, PerformanceProfileConfiguration.poolSize(16, 4, 2, 8));
+    }
+
+    @Test
+    void whenCpuTimeIsZero_thenThrows() {
+        assertThrows(IllegalArgumentException.class, () -> PerformanceProfileConfiguration.poolSize(4, 4, 0, 64));
+    }
+}
@@ -1,6 +1,7 @@
 package com.jr.distributed_inventory_system.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jr.distributed_inventory_system.cache.SoldOutRegistry;
 import com.jr.distributed_inventory_system.exception.StockNotAvailableException;
 import com.jr.distributed_inventory_system.model.InventoryItem;
 import com.jr.distributed_inventory_system.service.ExternalPaymentService;
@@ -12,8 +13,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Map;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -37,6 +41,9 @@ class InventoryControllerTest {
     @MockBean
     private ExternalPaymentService externalPaymentService;
 
+    @MockBean
+    private SoldOutRegistry soldOutRegistry;
+
     // --- Prueba 1: GET de Stock Exitoso (200 OK) ---
     @Test
     void whenGetStock_thenReturn200AndItem() throws Exception {
@@ -101,4 +108,50 @@ class InventoryControllerTest {
                 .andExpect(jsonPath("$.error").value("Conflict"))
                 .andExpect(jsonPath("$.message").value("Stock insuficiente para la reserva."));
     }
-}
\ No newline at end of file
+
+    // --- Prueba 5: POST Reserva de SKU agotado: rechazo rápido sin pago ni transacción (409) ---
+    @Test
+    void whenReserveSoldOutSku_thenReturns409WithoutPaymentOrTransaction() throws Exception {
+        when(soldOutRegistry.isSoldOut("S001_P001")).thenReturn(true);
+
+        String jsonRequest = "{\"transactionId\": \"T3\", \"productId\": \"P001\", \"storeId\": \"S001\", \"quantity\": 1}";
+
+        mockMvc.perform(post("/inventory/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonRequest))
+                .andExpect(status().isConflict()) // Espera HTTP 409
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("Conflict"))
+                .andExpect(jsonPath("$.status").value(409));
+
+        verify(externalPaymentService, never()).processPayment(anyString());
+        verify(inventoryService, never()).reserveStock(anyString(), anyString(), anyInt());
+    }
+
+    // --- Prueba 6: El 409 del rechazo rápido tiene la misma forma que el del camino lento ---
+    @Test
+    void whenSoldOutFastAndSlowPathReject_thenBodiesHaveSameShape() throws Exception {
+        when(externalPaymentService.processPayment(anyString())).thenReturn(true);
+        when(inventoryService.reserveStock(anyString(), anyString(), anyInt()))
+                .thenThrow(new StockNotAvailableException("Stock insuficiente para la reserva."));
+        String slowBody = mockMvc.perform(post("/inventory/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"transactionId\": \"T4\", \"productId\": \"P002\", \"storeId\": \"S001\", \"quantity\": 1}"))
+                .andExpect(status().isConflict())
+                .andReturn().getResponse().getContentAsString();
+
+        when(soldOutRegistry.isSoldOut("S001_P001")).thenReturn(true);
+        String fastBody = mockMvc.perform(post("/inventory/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"transactionId\": \"T5\", \"productId\": \"P001\", \"storeId\": \"S001\", \"quantity\": 1}"))
+                .andExpect(status().isConflict())
+                .andReturn().getResponse().getContentAsString();
+
+        Map<?, ?> slow = objectMapper.readValue(slowBody, Map.class);
+        Map<?, ?> fast = objectMapper.readValue(fastBody, Map.class);
+        assertEquals(slow.keySet(), fast.keySet(), "Mismos campos en ambos 409");
+        String timestampPattern = "\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{3}[+-]\\d{2}:\\d{2}";
+        assertTrue(((String) slow.get("timestamp")).matches(timestampPattern), "Formato de Jackson: " + slow.get("timestamp"));
+        assertTrue(((String) fast.get("timestamp")).matches(timestampPattern), "Mismo formato: " + fast.get("timestamp"));
+    }
+}
@@ -1,5 +1,8 @@
 package com.jr.distributed_inventory_system.service;
 
+import com.jr.distributed_inventory_system.cache.SoldOutRegistry;
+import com.jr.distributed_inventory_system.cache.StockNearCache;
+import com.jr.distributed_inventory_system.event.StockChangedEvent;
 import com.jr.distributed_inventory_system.exception.StockNotAvailableException;
 import com.jr.distributed_inventory_system.model.InventoryItem;
 import com.jr.distributed_inventory_system.repository.InventoryRepository;
@@ -8,7 +11,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -22,6 +29,15 @@ class InventoryServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Mock
+    private StockNearCache stockNearCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SoldOutRegistry soldOutRegistry;
+
     @InjectMocks
     private InventoryService inventoryService;
 
@@ -60,6 +76,47 @@ class InventoryServiceTest {
         verify(inventoryRepository, times(1)).save(testItem);
     }
 
+    // --- Prueba de Evento en Reserva: se publica el cambio con la secuencia del SKU ---
+    @Test
+    void whenReserveStock_thenStockChangedEventIsPublished() {
+        testItem.setChangeSequence(41);
+        when(inventoryRepository.findByProductIdAndStoreIdWithLock(PRODUCT_ID, STORE_ID))
+                .thenReturn(Optional.of(testItem));
+        when(inventoryRepository.save(any(InventoryItem.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        inventoryService.reserveStock(PRODUCT_ID, STORE_ID, 3);
+
+        verify(eventPublisher, times(1)).publishEvent(
+                new StockChangedEvent(STORE_ID + "_" + PRODUCT_ID, PRODUCT_ID, STORE_ID, 10, 7, 42));
+    }
+
+    // --- Prueba de Evento en Ajuste: se publica el cambio con la secuencia del SKU ---
+    @Test
+    void whenUpdateStock_thenStockChangedEventIsPublished() {
+        when(inventoryRepository.findByProductIdAndStoreIdWithLock(PRODUCT_ID, STORE_ID))
+                .thenReturn(Optional.of(testItem));
+        when(inventoryRepository.save(any(InventoryItem.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        inventoryService.updateStock(PRODUCT_ID, STORE_ID, 5);
+
+        verify(eventPublisher, times(1)).publishEvent(
+                new StockChangedEvent(STORE_ID + "_" + PRODUCT_ID, PRODUCT_ID, STORE_ID, 10, 15, 1));
+    }
+
+    // --- Prueba sin Evento: una reserva rechazada no publica nada ---
+    @Test
+    void whenReserveFails_thenNoEventIsPublished() {
+        when(inventoryRepository.findByProductIdAndStoreIdWithLock(PRODUCT_ID, STORE_ID))
+                .thenReturn(Optional.of(testItem));
+
+        assertThrows(StockNotAvailableException.class,
+                () -> inventoryService.reserveStock(PRODUCT_ID, STORE_ID, 12));
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
     // --- Prueba de Sobreventa (Consistencia Fuerte) ---
     @Test
     void whenReserveTooMuchStock_thenThrowsExceptionAndNoSave() {
@@ -79,6 +136,70 @@ class InventoryServiceTest {
         assertEquals(10, testItem.getStockLevel());
     }
 
+    // --- Prueba de Stock Agotado: el camino lento alimenta el rechazo rápido ---
+    @Test
+    void whenReserveOnSoldOutSku_thenSkuIsMarkedSoldOut() {
+        testItem.setStockLevel(0);
+        when(inventoryRepository.findByProductIdAndStoreIdWithLock(PRODUCT_ID, STORE_ID))
+                .thenReturn(Optional.of(testItem));
+
+        assertThrows(StockNotAvailableException.class,
+                () -> inventoryService.reserveStock(PRODUCT_ID, STORE_ID, 1));
+
+        verify(soldOutRegistry, times(1)).markSoldOut(STORE_ID + "_" + PRODUCT_ID, testItem.getChangeSequence());
+    }
+
+    // --- Prueba de Ajuste Masivo: existentes se actualizan, nuevos se crean ---
+    @Test
+    void whenUpdateStockBulk_thenExistingUpdatedAndNewCreated() {
+        when(inventoryRepository.findByStoreIdAndProductIdInWithLock(eq(STORE_ID), anyCollection()))
+                .thenReturn(List.of(testItem));
+        when(inventoryRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Map<String, Integer> changes = new LinkedHashMap<>();
+        changes.put(PRODUCT_ID, -4);
+        changes.put("P999", 6);
+
+        List<InventoryItem> result = inventoryService.updateStockBulk(STORE_ID, changes);
+
+        assertEquals(2, result.size());
+        assertEquals(6, result.get(0).getStockLevel(), "El stock debe ser 6 (10 - 4)");
+        assertEquals(STORE_ID + "_P999", result.get(1).getSkuId());
+        assertEquals(6, result.get(1).getStockLevel());
+        // Un único saveAll y solo con el SKU nuevo: la fila bloqueada se vuelca por dirty checking
+        verify(inventoryRepository, times(1)).saveAll(List.of(result.get(1)));
+        verify(inventoryRepository, never()).save(any(InventoryItem.class));
+    }
+
+    // --- Prueba de Ajuste Masivo sin SKUs nuevos: no hace falta saveAll ---
+    @Test
+    void whenUpdateStockBulkOnlyExisting_thenNoSaveAll() {
+        when(inventoryRepository.findByStoreIdAndProductIdInWithLock(eq(STORE_ID), anyCollection()))
+                .thenReturn(List.of(testItem));
+
+        List<InventoryItem> result = inventoryService.updateStockBulk(STORE_ID, Map.of(PRODUCT_ID, 5));
+
+        assertEquals(15, result.get(0).getStockLevel());
+        verify(inventoryRepository, never()).saveAll(anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(StockChangedEvent.class));
+    }
+
+    // --- Prueba de Ajuste Masivo "todo o nada" ---
+    @Test
+    void whenUpdateStockBulkGoesNegative_thenThrowsAndNoSave() {
+        when(inventoryRepository.findByStoreIdAndProductIdInWithLock(eq(STORE_ID), anyCollection()))
+                .thenReturn(List.of(testItem));
+
+        Map<String, Integer> changes = new LinkedHashMap<>();
+        changes.put("P999", 6);
+        changes.put(PRODUCT_ID, -11);
+
+        assertThrows(StockNotAvailableException.class,
+                () -> inventoryService.updateStockBulk(STORE_ID, changes));
+        verify(inventoryRepository, never()).saveAll(anyList());
+    }
+
     // --- Prueba de Concurrencia (Simula el Bloqueo Pesimista) ---
     @Test
     void whenMultipleThreadsTryToBuyLastItem_onlyOneSucceeds() throws InterruptedException {
@@ -0,0 +1,91 @@
+package com.jr.distributed_inventory_system.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableCommitSyncerTest {
+
+    // --- Prueba 1: PER_COMMIT hace un fsync por commit ---
+    @Test
+    void whenPerCommit_thenOneSyncPerCommit() {
+        AtomicInteger fsyncs = new AtomicInteger();
+        DurableCommitSyncer syncer = new DurableCommitSyncer(DurabilityPolicy.PER_COMMIT, fsyncs::incrementAndGet, 0, 1_000);
+
+        for (int i = 0; i < 10; i++) {
+            syncer.awaitDurable();
+        }
+        syncer.close();
+
+        assertEquals(10, fsyncs.get());
+    }
+
+    // --- Prueba 2: GROUPED cubre muchos commits concurrentes con pocos fsyncs ---
+    @Test
+    void whenGrouped_thenConcurrentCommitsShareSyncs() throws InterruptedException {
+        AtomicInteger fsyncs = new AtomicInteger();
+        Runnable slowFsync = () -> {
+            fsyncs.incrementAndGet();
+            sleep(10); // Simula el coste de un fsync real
+        };
+        DurableCommitSyncer syncer = new DurableCommitSyncer(DurabilityPolicy.GROUPED, slowFsync, 0, 1_000);
+
+        int commits = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch done = new CountDownLatch(commits);
+        for (int i = 0; i < commits; i++) {
+            executor.submit(() -> {
+                syncer.awaitDurable(); // Solo vuelve cuando un fsync posterior a su llamada terminó
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Todos los commits deben quedar durables");
+        executor.shutdown();
+        syncer.close();
+
+        assertTrue(fsyncs.get() < commits / 2, "Se esperaban fsyncs agrupados, hubo " + fsyncs.get());
+    }
+
+    // --- Prueba 3: INTERVAL no bloquea el commit y sincroniza en segundo plano ---
+    @Test
+    void whenInterval_thenCommitDoesNotWaitAndBackgroundSyncRuns() throws InterruptedException {
+        AtomicInteger fsyncs = new AtomicInteger();
+        DurableCommitSyncer syncer = new DurableCommitSyncer(DurabilityPolicy.INTERVAL, fsyncs::incrementAndGet, 0, 20);
+
+        long start = System.nanoTime();
+        syncer.awaitDurable();
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(20));
+
+        Thread.sleep(100);
+        syncer.close();
+        assertTrue(fsyncs.get() >= 2, "El fsync periódico debe haberse ejecutado");
+    }
+
+    // --- Prueba 4: La latencia del fsync se mide aparte del throughput ---
+    @Test
+    void whenSyncing_thenAverageLatencyIsReported() {
+        DurableCommitSyncer syncer = new DurableCommitSyncer(DurabilityPolicy.PER_COMMIT, () -> sleep(5), 0, 1_000);
+        assertEquals(0, syncer.averageSyncMillis());
+
+        syncer.awaitDurable();
+        syncer.awaitDurable();
+        syncer.close();
+
+        assertTrue(syncer.averageSyncMillis() >= 5, "Latencia media: " + syncer.averageSyncMillis());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
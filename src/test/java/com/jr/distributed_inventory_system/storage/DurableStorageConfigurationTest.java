@@ -0,0 +1,52 @@
+package com.jr.distributed_inventory_system.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Perfiles 'durable' y 'perf' combinados: perf añade sus opciones sin volver a 'jdbc:h2:mem'.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.jpa.show-sql=false")
+@ActiveProfiles({"durable", "perf"})
+class DurableStorageConfigurationTest {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void storagePath(DynamicPropertyRegistry registry) {
+        registry.add("inventory.storage.path", () -> dataDir.resolve("inventorydb").toAbsolutePath().toString());
+    }
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    // --- Prueba 1: Con durable,perf la BD sigue en fichero y lleva las opciones de perf ---
+    @Test
+    void whenCombinedWithPerf_thenUrlIsFileWithPerfOptions() {
+        String url = dataSourceProperties.determineUrl();
+
+        assertTrue(url.startsWith("jdbc:h2:file:"), "La URL debe seguir siendo de fichero: " + url);
+        assertTrue(url.endsWith(";QUERY_CACHE_SIZE=64"), "Las opciones de perf se añaden: " + url);
+    }
+
+    // --- Prueba 2: Una URL en memoria con el perfil durable falla al arrancar ---
+    @Test
+    void whenUrlIsInMemory_thenStartupFails() {
+        DataSourceProperties inMemory = new DataSourceProperties();
+        inMemory.setUrl("jdbc:h2:mem:inventorydb;QUERY_CACHE_SIZE=64");
+
+        assertThrows(IllegalStateException.class,
+                () -> new DurableStorageConfiguration().checkpointSyncConnection(inMemory));
+    }
+}
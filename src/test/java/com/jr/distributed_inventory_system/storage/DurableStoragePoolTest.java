@@ -0,0 +1,84 @@
+package com.jr.distributed_inventory_system.storage;
+
+import com.jr.distributed_inventory_system.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GROUPED con más escritores concurrentes que conexiones en el pool: cada escritor espera
+ * su fsync reteniendo su conexión, así que el fsync debe salir por la conexión dedicada.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "inventory.storage.durability=GROUPED",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        // Si el fsync pidiera conexión al pool, los escritores fallarían aquí en lugar de colgarse 30 s
+        "spring.datasource.hikari.connection-timeout=2000",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("durable")
+class DurableStoragePoolTest {
+
+    private static final int POOL_SIZE = 2;
+    private static final int WRITERS = 8;
+    private static final int RESERVATIONS_PER_WRITER = 20;
+    private static final String STORE_ID = "S-POOL";
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void storagePath(DynamicPropertyRegistry registry) {
+        registry.add("inventory.storage.path", () -> dataDir.resolve("inventorydb").toAbsolutePath().toString());
+    }
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private DurableCommitSyncer durableCommitSyncer;
+
+    // --- Prueba 1: Más escritores que conexiones no agotan el pool ---
+    @Test
+    void whenWritersExceedPoolSize_thenAllCommitsBecomeDurable() throws Exception {
+        assertTrue(WRITERS > POOL_SIZE);
+        for (int w = 0; w < WRITERS; w++) {
+            inventoryService.updateStock("P" + w, STORE_ID, 1_000);
+        }
+        long syncsBefore = durableCommitSyncer.syncCount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        Future<?>[] writers = new Future<?>[WRITERS];
+        for (int w = 0; w < WRITERS; w++) {
+            String productId = "P" + w;
+            writers[w] = executor.submit(() -> {
+                for (int i = 0; i < RESERVATIONS_PER_WRITER; i++) {
+                    inventoryService.reserveStock(productId, STORE_ID, 1);
+                }
+                return null;
+            });
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS); // Propaga un fallo por timeout de conexión
+        }
+        executor.shutdown();
+
+        for (int w = 0; w < WRITERS; w++) {
+            assertEquals(1_000 - RESERVATIONS_PER_WRITER,
+                    inventoryService.getStockLevel("P" + w, STORE_ID).orElseThrow().getStockLevel());
+        }
+        assertTrue(durableCommitSyncer.syncCount() > syncsBefore, "Los commits deben haber esperado fsyncs");
+    }
+}
@@ -0,0 +1,286 @@
+package com.jr.distributed_inventory_system.stream;
+
+import com.jr.distributed_inventory_system.event.StockChangedEvent;
+import com.jr.distributed_inventory_system.model.InventoryItem;
+import com.jr.distributed_inventory_system.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.servlet.mvc.method.annotation.RecordingEmitterHandler;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockStreamHubTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    private StockStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        hub = new StockStreamHub(inventoryRepository, 2, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    // --- Prueba 1: Un cliente lento recibe solo el último valor (conflación) ---
+    @Test
+    void whenConsumerIsSlow_thenUpdatesAreConflated() throws Exception {
+        SlowEmitter emitter = new SlowEmitter();
+        StockStreamHub.Subscription subscription = hub.register(emitter, "S001", Set.of());
+        hub.start(subscription, () -> List.<InventoryItem>of());
+
+        // El primer envío queda bloqueado en el "socket" del cliente
+        hub.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 100, 99, 1));
+        assertTrue(emitter.sendStarted.await(1, TimeUnit.SECONDS));
+
+        // Mientras tanto, 98 commits más: el hilo de commit nunca se bloquea
+        long start = System.nanoTime();
+        for (int stock = 98; stock >= 1; stock--) {
+            hub.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", stock + 1, stock, 100 - stock));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500), "La publicación no debe bloquear");
+
+        emitter.gate.countDown();
+        waitForUpdates(emitter, 2);
+        Thread.sleep(50);
+
+        assertEquals(2, emitter.updates.size(), "Solo el primero y el último valor conflacionado");
+        assertEquals(99, emitter.updates.get(0).stockLevel());
+        StockUpdate conflated = emitter.updates.get(1);
+        assertEquals(1, conflated.stockLevel());
+        assertEquals(-98, conflated.delta(), "El delta conflacionado cubre todo el tramo (99 -> 1)");
+    }
+
+    // --- Prueba 2: Un suscriptor de SKUs solo recibe sus SKUs ---
+    @Test
+    void whenSubscribedToSkus_thenOtherSkusAreNotSent() throws Exception {
+        SlowEmitter emitter = new SlowEmitter();
+        emitter.gate.countDown(); // Cliente rápido
+        StockStreamHub.Subscription subscription = hub.register(emitter, null, Set.of("S001_P001"));
+        hub.start(subscription, () -> List.<InventoryItem>of());
+
+        hub.onStockChanged(new StockChangedEvent("S001_P002", "P002", "S001", 50, 49, 1));
+        hub.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 10, 9, 1));
+        waitForUpdates(emitter, 1);
+        Thread.sleep(50);
+
+        assertEquals(1, emitter.updates.size());
+        assertEquals("S001_P001", emitter.updates.get(0).skuId());
+    }
+
+    // --- Prueba 3: Buffer desbordado: el cliente se resincroniza con un snapshot en lugar de cortarse ---
+    @Test
+    void whenBufferOverflows_thenSubscriberIsResyncedInsteadOfDropped() throws Exception {
+        SlowEmitter emitter = new SlowEmitter();
+        List<InventoryItem> database = new CopyOnWriteArrayList<>();
+        StockStreamHub.Subscription subscription = hub.register(emitter, "S001", Set.of());
+        hub.start(subscription, () -> database);
+
+        database.add(item("P001", 9, 1));
+        hub.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 10, 9, 1));
+        assertTrue(emitter.sendStarted.await(1, TimeUnit.SECONDS));
+        // Límite del buffer: 2 SKUs distintos pendientes
+        for (int p = 2; p <= 4; p++) {
+            database.add(item("P00" + p, 9, 1));
+            hub.onStockChanged(new StockChangedEvent("S001_P00" + p, "P00" + p, "S001", 10, 9, 1));
+        }
+        assertEquals(1, hub.subscriberCount(), "El desbordamiento no desconecta al cliente");
+
+        emitter.gate.countDown();
+        waitForView(emitter, database);
+        assertEquals(2, emitter.snapshots.size(), "Snapshot inicial y snapshot de resincronización");
+        assertEquals(4, emitter.snapshots.get(1).size());
+    }
+
+    // --- Prueba 4: Callbacks desordenados nunca hacen retroceder al cliente ---
+    @Test
+    void whenEventsArriveOutOfOrder_thenLatestSequenceWins() throws Exception {
+        SlowEmitter emitter = new SlowEmitter();
+        StockStreamHub.Subscription subscription = hub.register(emitter, "S001", Set.of());
+        hub.start(subscription, () -> List.<InventoryItem>of());
+
+        hub.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 10, 9, 1));
+        assertTrue(emitter.sendStarted.await(1, TimeUnit.SECONDS));
+        // El commit 3 notifica antes que el 2
+        hub.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 8, 7, 3));
+        hub.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 9, 8, 2));
+
+        emitter.gate.countDown();
+        waitForUpdates(emitter, 2);
+        // Un duplicado tardío del commit 2 ya no se envía
+        hub.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 9, 8, 2));
+        Thread.sleep(50);
+
+        assertEquals(2, emitter.updates.size());
+        StockUpdate last = emitter.updates.get(1);
+        assertEquals(7, last.stockLevel(), "El nivel final es el del commit con mayor secuencia");
+        assertEquals(3, last.sequence());
+        assertEquals(-2, last.delta(), "El delta cubre 9 -> 7 aunque los commits llegaran desordenados");
+    }
+
+    // --- Prueba 5: Un commit que el snapshot ya refleja no se reenvía detrás ---
+    @Test
+    void whenSnapshotAlreadyReflectsBufferedCommit_thenItIsDropped() throws Exception {
+        SlowEmitter emitter = new SlowEmitter();
+        emitter.gate.countDown();
+        StockStreamHub.Subscription subscription = hub.register(emitter, "S001", Set.of());
+
+        // Commit confirmado mientras se lee el snapshot: queda en el buffer
+        hub.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 10, 9, 4));
+        InventoryItem current = new InventoryItem();
+        current.setSkuId("S001_P001");
+        current.setProductId("P001");
+        current.setStoreId("S001");
+        current.setStockLevel(9);
+        current.setChangeSequence(4);
+        hub.start(subscription, () -> List.of(current));
+        Thread.sleep(50);
+        assertTrue(emitter.updates.isEmpty(), "El snapshot ya incluye el commit 4");
+
+        hub.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 9, 8, 5));
+        waitForUpdates(emitter, 1);
+        assertEquals(8, emitter.updates.get(0).stockLevel());
+    }
+
+    // --- Prueba 6: Un cliente atascado dentro del envío real (con su lock) no bloquea el commit ---
+    @Test
+    void whenClientStallsInsideLockedWrite_thenCommitThreadNeverBlocks() throws Exception {
+        SlowEmitter emitter = new SlowEmitter();
+        StockStreamHub.Subscription subscription = hub.register(emitter, "S001", Set.of());
+        hub.start(subscription, () -> List.<InventoryItem>of());
+
+        hub.onStockChanged(new StockChangedEvent("S001_P001", "P001", "S001", 10, 9, 1));
+        assertTrue(emitter.sendStarted.await(1, TimeUnit.SECONDS)); // Retiene el writeLock del emisor
+
+        // Commits que desbordan el buffer: nada en el hilo de commit puede esperar a ese lock
+        ExecutorService committer = Executors.newSingleThreadExecutor();
+        Future<?> commits = committer.submit(() -> {
+            for (int p = 2; p <= 9; p++) {
+                hub.onStockChanged(new StockChangedEvent("S001_P00" + p, "P00" + p, "S001", 10, 9, 1));
+            }
+        });
+        try {
+            commits.get(1, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            fail("El hilo de commit quedó bloqueado tras el envío atascado");
+        } finally {
+            emitter.gate.countDown();
+            committer.shutdownNow();
+        }
+    }
+
+    // --- Prueba 7: Un ajuste masivo de más SKUs que el límite no desconecta a un cliente rápido ---
+    @Test
+    void whenBulkCommitExceedsBound_thenFastConsumerStaysConnectedAndConverges() throws Exception {
+        SlowEmitter emitter = new SlowEmitter(); // Solo el primer envío está en vuelo durante el lote
+        List<InventoryItem> database = new CopyOnWriteArrayList<>();
+        StockStreamHub.Subscription subscription = hub.register(emitter, "S001", Set.of());
+        hub.start(subscription, () -> database);
+
+        // Tras el COMMIT de updateStockBulk: un evento por SKU, seguidos, en el mismo hilo
+        for (int p = 1; p <= 6; p++) {
+            database.add(item("P00" + p, 40 + p, 1));
+        }
+        for (int p = 1; p <= 6; p++) {
+            hub.onStockChanged(new StockChangedEvent("S001_P00" + p, "P00" + p, "S001", 0, 40 + p, 1));
+            if (p == 1) {
+                assertTrue(emitter.sendStarted.await(1, TimeUnit.SECONDS));
+            }
+        }
+        emitter.gate.countDown();
+
+        waitForView(emitter, database);
+        assertEquals(1, hub.subscriberCount(), "El cliente sigue conectado");
+        assertEquals(2, emitter.snapshots.size(), "El lote que desborda el buffer llega como snapshot");
+    }
+
+    private static InventoryItem item(String productId, int stockLevel, long sequence) {
+        InventoryItem item = new InventoryItem();
+        item.setSkuId("S001_" + productId);
+        item.setProductId(productId);
+        item.setStoreId("S001");
+        item.setStockLevel(stockLevel);
+        item.setChangeSequence(sequence);
+        return item;
+    }
+
+    private static void waitForView(SlowEmitter emitter, List<InventoryItem> database) throws InterruptedException {
+        Map<String, Integer> expected = new HashMap<>();
+        database.forEach(item -> expected.put(item.getSkuId(), item.getStockLevel()));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!emitter.view.equals(expected)) {
+            assertTrue(System.nanoTime() < deadline, "El cliente no convergió al stock actual: " + emitter.view);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void waitForUpdates(SlowEmitter emitter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (emitter.updates.size() < expected) {
+            assertTrue(System.nanoTime() < deadline, "No llegaron las actualizaciones esperadas");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * SseEmitter real cuyo "socket" registra lo enviado y bloquea cada StockUpdate hasta abrir
+     * 'gate'. El bloqueo ocurre dentro de SseEmitter.send(), reteniendo su writeLock.
+     */
+    private static class SlowEmitter extends SseEmitter {
+
+        final List<StockUpdate> updates = new CopyOnWriteArrayList<>();
+        final List<List<?>> snapshots = new CopyOnWriteArrayList<>();
+        // Stock que ve el cliente tras aplicar snapshots y actualizaciones en orden de llegada
+        final Map<String, Integer> view = new ConcurrentHashMap<>();
+        final CountDownLatch sendStarted = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+
+        SlowEmitter() {
+            RecordingEmitterHandler.attach(this, this::write);
+        }
+
+        private void write(Object data) throws IOException {
+            if (data instanceof List<?> snapshot) {
+                snapshots.add(snapshot);
+                snapshot.forEach(item -> apply((StockUpdate) item));
+            } else if (data instanceof StockUpdate update) {
+                sendStarted.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                updates.add(update);
+                apply(update);
+            }
+        }
+
+        private void apply(StockUpdate update) {
+            view.put(update.skuId(), update.stockLevel());
+        }
+    }
+}
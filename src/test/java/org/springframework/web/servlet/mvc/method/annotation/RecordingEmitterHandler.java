@@ -0,0 +1,77 @@
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Conecta un ResponseBodyEmitter real a un "socket" de prueba. initialize() y Handler son
+ * package-private en Spring, de ahí este paquete: así los envíos recorren el camino real
+ * de SseEmitter (con su writeLock) y no una sobrescritura de send() que se lo salte.
+ */
+public final class RecordingEmitterHandler implements ResponseBodyEmitter.Handler {
+
+    /**
+     * Escritura de un dato en el socket; puede bloquear para simular un cliente atascado.
+     */
+    @FunctionalInterface
+    public interface Socket {
+        void write(Object data) throws IOException;
+    }
+
+    private final Socket socket;
+    private final List<Runnable> completionCallbacks = new CopyOnWriteArrayList<>();
+
+    private RecordingEmitterHandler(Socket socket) {
+        this.socket = socket;
+    }
+
+    public static <E extends ResponseBodyEmitter> E attach(E emitter, Socket socket) {
+        try {
+            emitter.initialize(new RecordingEmitterHandler(socket));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return emitter;
+    }
+
+    @Override
+    public void send(Object data, MediaType mediaType) throws IOException {
+        socket.write(data);
+    }
+
+    @Override
+    public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+        for (ResponseBodyEmitter.DataWithMediaType item : items) {
+            socket.write(item.getData());
+        }
+    }
+
+    // Como el contenedor de servlets: cerrar la respuesta dispara onCompletion.
+    @Override
+    public void complete() {
+        completionCallbacks.forEach(Runnable::run);
+    }
+
+    @Override
+    public void completeWithError(Throwable failure) {
+        completionCallbacks.forEach(Runnable::run);
+    }
+
+    @Override
+    public void onTimeout(Runnable callback) {
+    }
+
+    @Override
+    public void onError(Consumer<Throwable> callback) {
+    }
+
+    @Override
+    public void onCompletion(Runnable callback) {
+        completionCallbacks.add(callback);
+    }
+}